@@ -0,0 +1,44 @@
+package com.checkout.payment.gateway;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.time.Year;
+import java.util.UUID;
+
+/**
+ * Sample payments shared by the benchmarks. Expiry dates are always next year so the requests stay
+ * valid whenever the suite is run.
+ */
+public final class BenchmarkPayments {
+
+  public static final String AUTHORIZATION_CODE = "0bb07405-6d44-4b50-a14f-7ae0beff13ad";
+
+  private BenchmarkPayments() {
+  }
+
+  public static int expiryYear() {
+    return Year.now().getValue() + 1;
+  }
+
+  public static PostPaymentRequest request() {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber("2222405343248877");
+    request.setExpiryMonth(4);
+    request.setExpiryYear(expiryYear());
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    request.setCvv(123);
+    return request;
+  }
+
+  public static String requestJson() {
+    return "{\"cardNumber\":\"2222405343248877\",\"expiryMonth\":4,\"expiryYear\":" + expiryYear()
+        + ",\"currency\":\"GBP\",\"amount\":100,\"cvv\":123}";
+  }
+
+  public static PaymentDetails details(UUID id) {
+    return new PaymentDetails(id, AUTHORIZATION_CODE, PaymentStatus.AUTHORIZED, 8877, 4,
+        expiryYear(), "GBP", 100);
+  }
+}
@@ -0,0 +1,124 @@
+package com.checkout.payment.gateway;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Runs the whole gateway in-process against a stub acquirer that authorizes every payment after
+ * {@code bankLatencyMillis}, and drives POST /payment over HTTP.
+ * <p>
+ * {@link #payment()} samples single-payment latency from 16 client threads, so the JSON result
+ * carries the p50/p99/p99.9 distribution. {@link #concurrentPayments()} keeps {@code inFlight}
+ * payments outstanding at once and reports the time to complete them all. Both run on the servlet
+ * stack with platform and virtual threads, and on the reactive stack (WebFlux on Netty), so the
+ * three deployment modes can be compared side by side.
+ * <p>
+ * The bank client's in-flight and concurrency limits, and Tomcat's connection limits, are pinned to
+ * {@code inFlight * 2} so nothing sheds load during the run. High {@code inFlight} values need an
+ * open file limit above twice their value ({@code ulimit -n}).
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EndToEndBenchmark {
+
+  @Param({"servlet", "reactive"})
+  private String stack;
+
+  @Param({"false", "true"})
+  private boolean virtualThreads;
+
+  @Param("20")
+  private int bankLatencyMillis;
+
+  @Param("10000")
+  private int inFlight;
+
+  private StubBank bank;
+  private ConfigurableApplicationContext gateway;
+  private HttpClient client;
+  private HttpRequest paymentRequest;
+
+  @Setup
+  public void setUp() throws IOException {
+    bank = new StubBank(bankLatencyMillis, inFlight);
+
+    int limit = inFlight * 2;
+    gateway = new SpringApplicationBuilder(PaymentGatewayApplication.class)
+        .properties(
+            "server.port=0",
+            "server.tomcat.max-connections=" + limit,
+            "server.tomcat.accept-count=" + limit,
+            "spring.profiles.active=" + ("reactive".equals(stack) ? "reactive" : ""),
+            "spring.threads.virtual.enabled=" + virtualThreads,
+            "springdoc.api-docs.enabled=false",
+            "springdoc.swagger-ui.enabled=false",
+            "logging.level.root=WARN",
+            "bank.gateway.base-url=" + bank.baseUrl(),
+            "bank.gateway.max-in-flight=" + limit,
+            "bank.gateway.concurrency-limit.initial=" + limit,
+            "bank.gateway.concurrency-limit.min=" + limit)
+        .run();
+    String port = gateway.getEnvironment().getProperty("local.server.port");
+
+    client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    paymentRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/payment"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(BenchmarkPayments.requestJson()))
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    gateway.close();
+    bank.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @Threads(16)
+  public int payment() throws IOException, InterruptedException {
+    return checkStatus(client.send(paymentRequest, HttpResponse.BodyHandlers.discarding()));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public int concurrentPayments() {
+    CompletableFuture<?>[] payments = new CompletableFuture<?>[inFlight];
+    for (int i = 0; i < inFlight; i++) {
+      payments[i] = client.sendAsync(paymentRequest, HttpResponse.BodyHandlers.discarding())
+          .thenApply(EndToEndBenchmark::checkStatus);
+    }
+    CompletableFuture.allOf(payments).join();
+    return payments.length;
+  }
+
+  private static int checkStatus(HttpResponse<?> response) {
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException("Payment failed with status " + response.statusCode());
+    }
+    return response.statusCode();
+  }
+}
@@ -0,0 +1,88 @@
+package com.checkout.payment.gateway;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Plays an abusive client against the gateway running in-process: 32 threads sending POST /payment
+ * bodies that fail validation (400) and GETs for payments that do not exist (404), as fast as the
+ * gateway answers. Error logging stays at its production level, so the rate limiting of error log
+ * lines is part of what is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ErrorPathBenchmark {
+
+  private ConfigurableApplicationContext gateway;
+  private HttpClient client;
+  private HttpRequest invalidPayment;
+  private HttpRequest unknownPayment;
+
+  @Setup
+  public void setUp() {
+    gateway = new SpringApplicationBuilder(PaymentGatewayApplication.class)
+        .properties(
+            "server.port=0",
+            "springdoc.api-docs.enabled=false",
+            "springdoc.swagger-ui.enabled=false")
+        .run();
+    String baseUrl = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port");
+
+    client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    invalidPayment = HttpRequest.newBuilder(URI.create(baseUrl + "/payment"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(
+            BenchmarkPayments.requestJson().replace("\"GBP\"", "\"JPY\"")))
+        .build();
+    unknownPayment = HttpRequest.newBuilder(URI.create(baseUrl + "/payment/" + UUID.randomUUID()))
+        .GET()
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    gateway.close();
+  }
+
+  @Benchmark
+  public int invalidPayment() throws IOException, InterruptedException {
+    return checkStatus(client.send(invalidPayment, HttpResponse.BodyHandlers.discarding()), 400);
+  }
+
+  @Benchmark
+  public int unknownPayment() throws IOException, InterruptedException {
+    return checkStatus(client.send(unknownPayment, HttpResponse.BodyHandlers.discarding()), 404);
+  }
+
+  private static int checkStatus(HttpResponse<?> response, int expected) {
+    if (response.statusCode() != expected) {
+      throw new IllegalStateException("Expected status " + expected + " but got "
+          + response.statusCode());
+    }
+    return response.statusCode();
+  }
+}
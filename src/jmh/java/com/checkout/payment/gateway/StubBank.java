@@ -0,0 +1,101 @@
+package com.checkout.payment.gateway;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process acquirer that authorizes every payment after a fixed latency per call. Serves
+ * {@code /payments} and {@code /payments/batch}; a batch call costs the same latency as a single
+ * one. Optionally every {@code slowEvery}-th call takes {@code slowLatencyMillis} instead, to
+ * give the latency distribution a tail.
+ */
+public final class StubBank implements AutoCloseable {
+
+  private static final byte[] AUTHORIZED = ("{\"authorized\":true,\"authorization_code\":\""
+      + BenchmarkPayments.AUTHORIZATION_CODE + "\"}").getBytes(StandardCharsets.UTF_8);
+
+  private final int latencyMillis;
+  private final int slowEvery;
+  private final int slowLatencyMillis;
+  private final AtomicLong calls = new AtomicLong();
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  public StubBank(int latencyMillis, int backlog) throws IOException {
+    this(latencyMillis, 0, 0, backlog);
+  }
+
+  public StubBank(int latencyMillis, int slowEvery, int slowLatencyMillis, int backlog)
+      throws IOException {
+    this.latencyMillis = latencyMillis;
+    this.slowEvery = slowEvery;
+    this.slowLatencyMillis = slowLatencyMillis;
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), backlog);
+    server.createContext("/payments/batch", this::authorizeBatch);
+    server.createContext("/payments", this::authorize);
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  public String baseUrl() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void authorize(HttpExchange exchange) throws IOException {
+    exchange.getRequestBody().readAllBytes();
+    respond(exchange, AUTHORIZED);
+  }
+
+  private void authorizeBatch(HttpExchange exchange) throws IOException {
+    int items = countItems(exchange.getRequestBody().readAllBytes());
+    byte[] response = new byte[items * (AUTHORIZED.length + 1) + 1];
+    response[0] = '[';
+    int offset = 1;
+    for (int i = 0; i < items; i++) {
+      System.arraycopy(AUTHORIZED, 0, response, offset, AUTHORIZED.length);
+      offset += AUTHORIZED.length;
+      response[offset++] = (byte) (i == items - 1 ? ']' : ',');
+    }
+    respond(exchange, response);
+  }
+
+  private void respond(HttpExchange exchange, byte[] response) throws IOException {
+    boolean slow = slowEvery > 0 && calls.incrementAndGet() % slowEvery == 0;
+    try {
+      Thread.sleep(slow ? slowLatencyMillis : latencyMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, response.length);
+    try (OutputStream body = exchange.getResponseBody()) {
+      body.write(response);
+    }
+  }
+
+  // Payment requests are flat objects, so each opening brace starts one item
+  private static int countItems(byte[] body) {
+    int items = 0;
+    for (byte b : body) {
+      if (b == '{') {
+        items++;
+      }
+    }
+    return items;
+  }
+}
@@ -0,0 +1,87 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.BenchmarkPayments;
+import com.checkout.payment.gateway.StubBank;
+import com.checkout.payment.gateway.configuration.BankGatewayProperties;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Traces the throughput against latency curve of {@link BankGatewayClient} with and without
+ * micro-batching, against a stub acquirer that charges {@code bankLatencyMillis} per call.
+ * <p>
+ * {@code maxSize=1} sends every payment on its own; larger sizes group concurrent payments for up
+ * to {@code maxDelayMicros}. Throughput and sampled latency are reported for each combination, so
+ * plotting one against the other gives the curve. Connections and the concurrency limit are
+ * pinned above the thread count so neither caps the unbatched run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(128)
+@Fork(1)
+public class BankBatchingBenchmark {
+
+  @Param({"1", "8", "32", "128"})
+  private int maxSize;
+
+  @Param({"200", "1000"})
+  private int maxDelayMicros;
+
+  @Param("5")
+  private int bankLatencyMillis;
+
+  private StubBank bank;
+  private BankGatewayClient client;
+  private PostPaymentRequest request;
+
+  @Setup
+  public void setUp() throws IOException {
+    bank = new StubBank(bankLatencyMillis, 1024);
+
+    BankGatewayProperties properties = new BankGatewayProperties();
+    properties.setBaseUrl(bank.baseUrl());
+    properties.setMaxInFlight(1024);
+    properties.getConcurrencyLimit().setInitial(1024);
+    properties.getConcurrencyLimit().setMin(1024);
+    properties.getBatching().setEnabled(maxSize > 1);
+    properties.getBatching().setMaxSize(maxSize);
+    properties.getBatching().setMaxDelay(Duration.ofNanos(maxDelayMicros * 1_000L));
+
+    client = new BankGatewayClient(
+        HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(), properties,
+        new PaymentMetrics(new SimpleMeterRegistry()));
+    request = BenchmarkPayments.request();
+  }
+
+  @TearDown
+  public void tearDown() {
+    client.close();
+    bank.close();
+  }
+
+  @Benchmark
+  public BankGatewayResponse authorize() {
+    return client.authorize(request).join();
+  }
+}
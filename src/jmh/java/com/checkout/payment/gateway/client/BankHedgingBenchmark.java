@@ -0,0 +1,84 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.BenchmarkPayments;
+import com.checkout.payment.gateway.StubBank;
+import com.checkout.payment.gateway.configuration.BankGatewayProperties;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Samples authorization latency through {@link AcquirerRouter} against a stub acquirer that
+ * answers in {@code bankLatencyMillis}, except for one call in {@code slowEvery} that takes
+ * {@code slowLatencyMillis}. Compare p99 and p99.9 with and without hedging.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class BankHedgingBenchmark {
+
+  @Param({"false", "true"})
+  private boolean hedging;
+
+  @Param("2")
+  private int bankLatencyMillis;
+
+  @Param("200")
+  private int slowEvery;
+
+  @Param("250")
+  private int slowLatencyMillis;
+
+  private StubBank bank;
+  private AcquirerRouter router;
+  private PostPaymentRequest request;
+
+  @Setup
+  public void setUp() throws IOException {
+    bank = new StubBank(bankLatencyMillis, slowEvery, slowLatencyMillis, 1024);
+
+    BankGatewayProperties properties = new BankGatewayProperties();
+    properties.setBaseUrl(bank.baseUrl());
+    properties.getConcurrencyLimit().setInitial(256);
+    properties.getConcurrencyLimit().setMin(256);
+    properties.getHedging().setEnabled(hedging);
+    properties.getHedging().setMinDelay(Duration.ofMillis(1));
+
+    router = new AcquirerRouter(
+        HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(), properties,
+        new PaymentMetrics(new SimpleMeterRegistry()));
+    request = BenchmarkPayments.request();
+  }
+
+  @TearDown
+  public void tearDown() {
+    router.close();
+    bank.close();
+  }
+
+  @Benchmark
+  public BankGatewayResponse authorize() {
+    return router.authorize(request).join();
+  }
+}
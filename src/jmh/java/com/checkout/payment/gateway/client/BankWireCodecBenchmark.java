@@ -0,0 +1,74 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.BenchmarkPayments;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link BankWireCodec} with the previous {@code HashMap} plus {@link ObjectMapper}
+ * encoding and tree-model decoding of acquirer messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankWireCodecBenchmark {
+
+  private ObjectMapper objectMapper;
+  private PostPaymentRequest request;
+  private byte[] response;
+
+  @Setup
+  public void setUp() {
+    objectMapper = new ObjectMapper();
+    request = BenchmarkPayments.request();
+    response = ("{\"authorized\":true,\"authorization_code\":\""
+        + BenchmarkPayments.AUTHORIZATION_CODE + "\"}").getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public byte[] encodeRequest() {
+    return BankWireCodec.encodeRequest(request);
+  }
+
+  @Benchmark
+  public byte[] encodeRequestWithMap() throws IOException {
+    Map<String, Object> bankRequest = new HashMap<>();
+    bankRequest.put("card_number", request.getCardNumber());
+    bankRequest.put("expiry_date", request.getExpiryDate());
+    bankRequest.put("currency", request.getCurrency());
+    bankRequest.put("amount", request.getAmount());
+    bankRequest.put("cvv", request.getCvv());
+    return objectMapper.writeValueAsString(bankRequest).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public BankGatewayResponse decodeResponse() throws IOException {
+    return BankWireCodec.decodeResponse(response);
+  }
+
+  @Benchmark
+  public BankGatewayResponse decodeResponseWithTree() throws IOException {
+    JsonNode jsonNode = objectMapper.readTree(new String(response, StandardCharsets.UTF_8));
+    return new BankGatewayResponse(jsonNode.get("authorized").asBoolean(),
+        jsonNode.get("authorization_code").asText());
+  }
+}
@@ -0,0 +1,72 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.BenchmarkPayments;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.GetPaymentResponse;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures mapping stored payments to response DTOs, on its own and together with JSON
+ * serialization, against serving the body from {@link PaymentResponseCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentResponseMappingBenchmark {
+
+  private ObjectMapper objectMapper;
+  private PaymentDetails details;
+  private PaymentRecord record;
+  private PaymentResponseCache responseCache;
+
+  @Setup
+  public void setUp() {
+    objectMapper = new ObjectMapper();
+    details = BenchmarkPayments.details(UUID.randomUUID());
+    record = PaymentRecord.wrap(PaymentRecord.encode(details, System.currentTimeMillis()));
+    responseCache =
+        new PaymentResponseCache(objectMapper, new PaymentMetrics(new SimpleMeterRegistry()), 1);
+    responseCache.add(details);
+  }
+
+  @Benchmark
+  public PostPaymentResponse postPaymentResponse() {
+    return PaymentGatewayController.convertToPostPaymentResponse(details);
+  }
+
+  @Benchmark
+  public GetPaymentResponse getPaymentResponse() {
+    return PaymentGatewayController.convertToGetPaymentResponse(record);
+  }
+
+  @Benchmark
+  public byte[] getPaymentResponseJson() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(
+        PaymentGatewayController.convertToGetPaymentResponse(record));
+  }
+
+  @Benchmark
+  public byte[] cachedGetPaymentResponseJson() {
+    return responseCache.get(record).getBody();
+  }
+}
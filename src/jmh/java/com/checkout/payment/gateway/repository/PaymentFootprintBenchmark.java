@@ -0,0 +1,90 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.BenchmarkPayments;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import java.lang.ref.Reference;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the retained heap of stored payments: {@link PaymentDetails} object graphs in a map,
+ * as the repository used to hold them, against {@link PaymentRecord} byte arrays and against the
+ * repository itself. The result of interest is the {@code bytesPerPayment} secondary metric.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms12g", "-Xmx12g", "-XX:+UseParallelGC"})
+public class PaymentFootprintBenchmark {
+
+  @Param("10000000")
+  private int payments;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Footprint {
+    public double bytesPerPayment;
+  }
+
+  @Benchmark
+  public void objectGraph(Footprint footprint) {
+    long before = usedHeap();
+    Map<UUID, PaymentDetails> store = new ConcurrentHashMap<>(payments * 2);
+    for (int i = 0; i < payments; i++) {
+      PaymentDetails payment = BenchmarkPayments.details(UUID.randomUUID());
+      store.put(payment.getId(), payment);
+    }
+    footprint.bytesPerPayment = (double) (usedHeap() - before) / payments;
+    Reference.reachabilityFence(store);
+  }
+
+  @Benchmark
+  public void packedRecords(Footprint footprint) {
+    long before = usedHeap();
+    Map<UUID, byte[]> store = new ConcurrentHashMap<>(payments * 2);
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < payments; i++) {
+      PaymentDetails payment = BenchmarkPayments.details(UUID.randomUUID());
+      store.put(payment.getId(), PaymentRecord.encode(payment, now));
+    }
+    footprint.bytesPerPayment = (double) (usedHeap() - before) / payments;
+    Reference.reachabilityFence(store);
+  }
+
+  @Benchmark
+  public void repository(Footprint footprint) {
+    long before = usedHeap();
+    PaymentsRepository repository =
+        new PaymentsRepository(payments * 2, payments, Duration.ZERO, Optional.empty());
+    for (int i = 0; i < payments; i++) {
+      repository.add(BenchmarkPayments.details(UUID.randomUUID()));
+    }
+    footprint.bytesPerPayment = (double) (usedHeap() - before) / payments;
+    Reference.reachabilityFence(repository);
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
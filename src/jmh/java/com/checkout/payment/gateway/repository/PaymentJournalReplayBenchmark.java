@@ -0,0 +1,93 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.BenchmarkPayments;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Measures startup recovery from a {@link PaymentJournal}: opening the segments, reading and
+ * CRC-checking every entry, and rebuilding the {@link PaymentsRepository} index from them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PaymentJournalReplayBenchmark {
+
+  private static final DataSize SEGMENT_SIZE = DataSize.ofMegabytes(64);
+  private static final Duration FLUSH_INTERVAL = Duration.ofMillis(5);
+
+  @Param("1000000")
+  private int payments;
+
+  private Path directory;
+
+  @Setup
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("payment-journal-benchmark");
+    PaymentJournal journal = openJournal();
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < payments; i++) {
+      journal.append(PaymentRecord.encode(BenchmarkPayments.details(UUID.randomUUID()), now));
+    }
+    journal.close();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Benchmark
+  public int replay() throws IOException {
+    PaymentJournal journal = openJournal();
+    try {
+      return journal.replay().size();
+    } finally {
+      journal.close();
+    }
+  }
+
+  @Benchmark
+  public int rebuildRepository() throws IOException {
+    PaymentJournal journal = openJournal();
+    try {
+      PaymentsRepository repository =
+          new PaymentsRepository(payments * 2, 0, Duration.ZERO, Optional.of(journal));
+      repository.replayJournal();
+      return repository.size();
+    } finally {
+      journal.close();
+    }
+  }
+
+  private PaymentJournal openJournal() throws IOException {
+    return new PaymentJournal(directory, SEGMENT_SIZE, FLUSH_INTERVAL, false, Duration.ZERO, 0);
+  }
+}
@@ -0,0 +1,96 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.BenchmarkPayments;
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link PaymentsRepository#find(PaymentQuery)} over a store of 10M payments spread
+ * across every status and currency: first pages for each kind of filter, a page deep into the
+ * listing via its cursor, and a narrow time window.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms12g", "-Xmx12g"})
+public class PaymentQueryBenchmark {
+
+  @Param("10000000")
+  private int payments;
+
+  @Param("100")
+  private int pageSize;
+
+  private PaymentsRepository repository;
+  private String middleCursor;
+  private Instant windowStart;
+  private Instant windowEnd;
+
+  @Setup
+  public void setUp() {
+    repository = new PaymentsRepository(payments * 2, 0, Duration.ZERO, Optional.empty());
+    PaymentStatus[] statuses = PaymentStatus.values();
+    Currency[] currencies = Currency.values();
+    for (int i = 0; i < payments; i++) {
+      PaymentDetails payment = BenchmarkPayments.details(UUID.randomUUID());
+      payment.setStatus(statuses[i % statuses.length]);
+      payment.setCurrency(currencies[(i / statuses.length) % currencies.length].getValue());
+      repository.add(payment);
+    }
+
+    List<PaymentRecord> all = repository.find(
+        new PaymentQuery(null, null, null, null, null, payments / 2));
+    PaymentRecord middle = all.get(all.size() - 1);
+    middleCursor = PaymentQuery.cursorOf(middle);
+    windowStart = Instant.ofEpochMilli(middle.getStoredAt());
+    windowEnd = windowStart.plusMillis(1);
+  }
+
+  @Benchmark
+  public List<PaymentRecord> firstPage() {
+    return repository.find(new PaymentQuery(null, null, null, null, null, pageSize));
+  }
+
+  @Benchmark
+  public List<PaymentRecord> firstPageByStatus() {
+    return repository.find(
+        new PaymentQuery(PaymentStatus.DECLINED, null, null, null, null, pageSize));
+  }
+
+  @Benchmark
+  public List<PaymentRecord> firstPageByStatusAndCurrency() {
+    return repository.find(
+        new PaymentQuery(PaymentStatus.DECLINED, Currency.EUR, null, null, null, pageSize));
+  }
+
+  @Benchmark
+  public List<PaymentRecord> pageAfterCursor() {
+    return repository.find(new PaymentQuery(null, null, null, null, middleCursor, pageSize));
+  }
+
+  @Benchmark
+  public List<PaymentRecord> timeWindow() {
+    return repository.find(
+        new PaymentQuery(null, null, windowStart, windowEnd, null, pageSize));
+  }
+}
@@ -0,0 +1,71 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.BenchmarkPayments;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link PaymentsRepository} writes and reads against a store that is already full, so
+ * every write also evicts the oldest payment. Runs with four threads to include contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(4)
+public class PaymentsRepositoryBenchmark {
+
+  @Param("1000000")
+  private int payments;
+
+  private PaymentsRepository repository;
+  private UUID[] ids;
+  private PaymentDetails template;
+
+  @Setup
+  public void setUp() {
+    repository = new PaymentsRepository(payments * 2, payments, Duration.ZERO, Optional.empty());
+    ids = new UUID[payments];
+    for (int i = 0; i < payments; i++) {
+      ids[i] = UUID.randomUUID();
+      repository.add(BenchmarkPayments.details(ids[i]));
+    }
+    template = BenchmarkPayments.details(null);
+  }
+
+  @Benchmark
+  public void add() {
+    PaymentDetails payment = new PaymentDetails(UUID.randomUUID(), template.getAuthorizationCode(),
+        template.getStatus(), template.getCardNumberLastFour(), template.getExpiryMonth(),
+        template.getExpiryYear(), template.getCurrency(), template.getAmount());
+    repository.add(payment);
+  }
+
+  @Benchmark
+  public Optional<PaymentRecord> getRecord() {
+    return repository.getRecord(ids[ThreadLocalRandom.current().nextInt(payments)]);
+  }
+
+  @Benchmark
+  public Optional<PaymentDetails> get() {
+    return repository.get(ids[ThreadLocalRandom.current().nextInt(payments)]);
+  }
+}
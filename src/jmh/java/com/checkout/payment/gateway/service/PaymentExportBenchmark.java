@@ -0,0 +1,81 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.BenchmarkPayments;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures export throughput into a stream that discards its input. The {@code bytes} secondary
+ * result is the export rate in bytes per second; divide by 1,048,576 for MB/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PaymentExportBenchmark {
+
+  @Param("1000000")
+  private int payments;
+
+  @Param({"NDJSON", "CSV"})
+  private PaymentExportService.Format format;
+
+  private PaymentExportService exportService;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Output extends OutputStream {
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+
+    @Override
+    public void write(int b) {
+      bytes++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      bytes += len;
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    PaymentsRepository repository =
+        new PaymentsRepository(payments * 2, 0, Duration.ZERO, Optional.empty());
+    for (int i = 0; i < payments; i++) {
+      repository.add(BenchmarkPayments.details(UUID.randomUUID()));
+    }
+    exportService = new PaymentExportService(repository, new ObjectMapper());
+  }
+
+  @Benchmark
+  public void export(Output output) throws IOException {
+    exportService.export(format, output);
+  }
+}
@@ -0,0 +1,112 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.BenchmarkPayments;
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.exception.InvalidPaymentException;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link PaymentValidationService} with the previous regex- and stream-based checks,
+ * kept here as {@link #previousValidation}, on valid and rejected requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentValidationBenchmark {
+
+  private PaymentValidationService validationService;
+  private PostPaymentRequest validRequest;
+  private PostPaymentRequest invalidRequest;
+
+  @Setup
+  public void setUp() {
+    validationService = new PaymentValidationService(Clock.systemDefaultZone(), false);
+    validRequest = BenchmarkPayments.request();
+    invalidRequest = BenchmarkPayments.request();
+    invalidRequest.setCurrency("JPY");
+  }
+
+  @Benchmark
+  public PostPaymentRequest validRequest() {
+    validationService.validatePaymentRequest(validRequest);
+    return validRequest;
+  }
+
+  @Benchmark
+  public InvalidPaymentException invalidRequest() {
+    try {
+      validationService.validatePaymentRequest(invalidRequest);
+      throw new IllegalStateException("Request was expected to be rejected");
+    } catch (InvalidPaymentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public PostPaymentRequest previousValidRequest() {
+    previousValidation(validRequest);
+    return validRequest;
+  }
+
+  @Benchmark
+  public InvalidPaymentException previousInvalidRequest() {
+    try {
+      previousValidation(invalidRequest);
+      throw new IllegalStateException("Request was expected to be rejected");
+    } catch (InvalidPaymentException e) {
+      return e;
+    }
+  }
+
+  private static void previousValidation(PostPaymentRequest request) {
+    String cardNumber = request.getCardNumber();
+    if (cardNumber == null || cardNumber.length() < 14 || cardNumber.length() > 19
+        || !cardNumber.matches("\\d+")) {
+      throw new InvalidPaymentException(
+          "Card number must be a numeric string between 14 and 19 digits long");
+    }
+    if (request.getExpiryMonth() < 1 || request.getExpiryMonth() > 12) {
+      throw new InvalidPaymentException("Expiry month must be between 1 and 12");
+    }
+    int currentYear = LocalDate.now().getYear();
+    if (request.getExpiryYear() < currentYear || request.getExpiryYear() > currentYear + 6) {
+      throw new InvalidPaymentException("Invalid expiry year");
+    }
+    LocalDate today = LocalDate.now();
+    LocalDate expiryDate = LocalDate.of(request.getExpiryYear(), request.getExpiryMonth(),
+        today.getDayOfMonth());
+    if (expiryDate.isBefore(today)) {
+      throw new InvalidPaymentException("Expiry date cannot be in the past");
+    }
+    String currency = request.getCurrency();
+    if (currency == null || currency.trim().isEmpty()) {
+      throw new InvalidPaymentException("Currency is required");
+    }
+    if (Arrays.stream(Currency.values()).noneMatch(c -> c.getValue().equals(currency))) {
+      throw new InvalidPaymentException("Invalid currency. Supported currencies: USD, EUR, GBP");
+    }
+    if (request.getCvv() < 100 || request.getCvv() > 9999) {
+      throw new InvalidPaymentException("CVV must be a 3 or 4-digit number");
+    }
+    if (request.getAmount() <= 0) {
+      throw new InvalidPaymentException("Invalid amount");
+    }
+  }
+}
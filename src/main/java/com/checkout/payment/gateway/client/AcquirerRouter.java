@@ -0,0 +1,284 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.configuration.BankGatewayProperties;
+import com.checkout.payment.gateway.exception.BankGatewayException;
+import com.checkout.payment.gateway.exception.BankGatewayUnavailableException;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import jakarta.annotation.PreDestroy;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks the acquirer for each payment among {@code bank.gateway.acquirers}.
+ * <p>
+ * Only acquirers whose currencies and BIN ranges accept the payment are considered. Among those,
+ * acquirers whose circuit breaker would reject the call go last, and the rest are tried in order
+ * of their moving average latency, fastest first; an acquirer with no calls yet counts as fastest
+ * so that it gets measured. When an acquirer answers with a 5xx or does not admit the call, the
+ * payment fails over to the next one. Timeouts and other communication errors do not fail over,
+ * since the acquirer may have authorized the payment before the connection was lost.
+ * <p>
+ * With {@code bank.gateway.hedging.enabled=true}, an attempt that has not been answered within the
+ * acquirer's recent latency at {@code bank.gateway.hedging.percentile} is hedged: a second attempt
+ * goes out to the same acquirer and the first successful answer wins. Both attempts carry the same
+ * idempotency reference, so the acquirer authorizes the payment once. Hedges never go to another
+ * acquirer, whose deduplication would not know about the first attempt. Hedging is skipped while
+ * batching is enabled, since batched calls carry no reference.
+ */
+@Component
+public class AcquirerRouter {
+
+  static final String DEFAULT_ACQUIRER = "default";
+
+  private static final int BIN_LENGTH = 6;
+
+  private final List<Route> routes;
+  private final PaymentMetrics metrics;
+  private final boolean hedging;
+  private final long minHedgeDelayNanos;
+
+  public AcquirerRouter(HttpClient bankHttpClient, BankGatewayProperties properties,
+      PaymentMetrics metrics) {
+    this.metrics = metrics;
+    BankGatewayProperties.Hedging hedgingProperties = properties.getHedging();
+    this.hedging = hedgingProperties.isEnabled() && !properties.getBatching().isEnabled();
+    this.minHedgeDelayNanos = hedgingProperties.getMinDelay().toNanos();
+    List<BankGatewayProperties.Acquirer> acquirers = properties.getAcquirers();
+    if (acquirers.isEmpty()) {
+      routes = List.of(new Route(new BankGatewayClient(bankHttpClient, properties, metrics),
+          Set.of(), new int[0]));
+      return;
+    }
+    List<Route> configured = new ArrayList<>(acquirers.size());
+    for (BankGatewayProperties.Acquirer acquirer : acquirers) {
+      if (acquirer.getName() == null || acquirer.getBaseUrl() == null) {
+        throw new IllegalArgumentException("Every acquirer needs a name and a base-url");
+      }
+      configured.add(new Route(
+          new BankGatewayClient(acquirer.getName(), acquirer.getBaseUrl(), bankHttpClient,
+              properties, metrics),
+          Set.copyOf(acquirer.getCurrencies()), parseBinRanges(acquirer)));
+    }
+    routes = List.copyOf(configured);
+  }
+
+  public CompletableFuture<BankGatewayResponse> authorize(PostPaymentRequest paymentRequest) {
+    String currency = paymentRequest.getCurrency();
+    int bin = bin(paymentRequest.getCardNumber());
+
+    // Insertion sort on scores read once, since latencies keep moving while we compare
+    Route[] candidates = new Route[routes.size()];
+    double[] scores = new double[routes.size()];
+    int count = 0;
+    for (Route route : routes) {
+      if (!route.accepts(currency, bin)) {
+        continue;
+      }
+      double score = route.score();
+      int i = count++;
+      while (i > 0 && scores[i - 1] > score) {
+        candidates[i] = candidates[i - 1];
+        scores[i] = scores[i - 1];
+        i--;
+      }
+      candidates[i] = route;
+      scores[i] = score;
+    }
+
+    if (count == 0) {
+      return CompletableFuture.failedFuture(new BankGatewayUnavailableException(
+          "No acquirer accepts " + currency + " payments for this card"));
+    }
+    String reference = hedging ? UUID.randomUUID().toString() : null;
+    return authorize(paymentRequest, reference, candidates, 0, count);
+  }
+
+  public List<BankGatewayClient> getAcquirers() {
+    return routes.stream().map(route -> route.client).toList();
+  }
+
+  @PreDestroy
+  public void close() {
+    for (Route route : routes) {
+      route.client.close();
+    }
+  }
+
+  private CompletableFuture<BankGatewayResponse> authorize(PostPaymentRequest paymentRequest,
+      String reference, Route[] candidates, int index, int count) {
+    BankGatewayClient acquirer = candidates[index].client;
+    CompletableFuture<BankGatewayResponse> result;
+    if (hedging) {
+      result = hedge(paymentRequest, reference, acquirer);
+    } else {
+      result = acquirer.authorize(paymentRequest);
+    }
+    if (index == count - 1) {
+      return result;
+    }
+    return result.exceptionallyCompose(error -> canFailOver(error)
+        ? authorize(paymentRequest, reference, candidates, index + 1, count)
+        : CompletableFuture.failedFuture(error));
+  }
+
+  private CompletableFuture<BankGatewayResponse> hedge(PostPaymentRequest paymentRequest,
+      String reference, BankGatewayClient acquirer) {
+    long delay = acquirer.getHedgeDelayNanos();
+    if (delay < 0) {
+      // Not enough calls yet to know what slow looks like
+      return acquirer.authorize(paymentRequest, reference);
+    }
+    HedgedCall call = new HedgedCall(metrics);
+    acquirer.authorize(paymentRequest, reference).whenComplete(call::onPrimaryAnswer);
+    CompletableFuture.delayedExecutor(Math.max(delay, minHedgeDelayNanos), TimeUnit.NANOSECONDS)
+        .execute(() -> {
+          if (call.startHedge()) {
+            acquirer.authorize(paymentRequest, reference).whenComplete(call::onHedgeAnswer);
+          }
+        });
+    return call.result;
+  }
+
+  private static boolean canFailOver(Throwable error) {
+    Throwable cause = error instanceof CompletionException && error.getCause() != null
+        ? error.getCause()
+        : error;
+    return cause instanceof BankGatewayUnavailableException
+        || (cause instanceof BankGatewayException bankError && bankError.getStatusCode() >= 500);
+  }
+
+  private static int bin(String cardNumber) {
+    if (cardNumber == null || cardNumber.length() < BIN_LENGTH) {
+      return -1;
+    }
+    int bin = 0;
+    for (int i = 0; i < BIN_LENGTH; i++) {
+      char c = cardNumber.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      bin = bin * 10 + (c - '0');
+    }
+    return bin;
+  }
+
+  private static int[] parseBinRanges(BankGatewayProperties.Acquirer acquirer) {
+    List<String> ranges = acquirer.getBinRanges();
+    int[] bounds = new int[ranges.size() * 2];
+    for (int i = 0; i < ranges.size(); i++) {
+      String range = ranges.get(i).trim();
+      int dash = range.indexOf('-');
+      try {
+        bounds[2 * i] = Integer.parseInt(dash < 0 ? range : range.substring(0, dash).trim());
+        bounds[2 * i + 1] = Integer.parseInt(dash < 0 ? range : range.substring(dash + 1).trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(
+            "Invalid BIN range '" + range + "' for acquirer " + acquirer.getName());
+      }
+    }
+    return bounds;
+  }
+
+  /**
+   * Completes with the first successful answer of a primary attempt and an optional hedge, or with
+   * an error once every attempt sent has failed. That error only allows failover when every
+   * attempt failed in a way that does: if one attempt timed out or lost its connection, the
+   * acquirer may have authorized it, so its error is reported instead of a 5xx from the other.
+   */
+  private static final class HedgedCall {
+
+    private final CompletableFuture<BankGatewayResponse> result = new CompletableFuture<>();
+    private final PaymentMetrics metrics;
+    private int outstanding = 1;
+    private boolean hedged;
+    private Throwable reportedError;
+
+    private HedgedCall(PaymentMetrics metrics) {
+      this.metrics = metrics;
+    }
+
+    private synchronized boolean startHedge() {
+      if (result.isDone() || outstanding == 0) {
+        return false;
+      }
+      outstanding++;
+      hedged = true;
+      metrics.recordHedge();
+      return true;
+    }
+
+    private void onPrimaryAnswer(BankGatewayResponse response, Throwable error) {
+      onAnswer(false, response, error);
+    }
+
+    private void onHedgeAnswer(BankGatewayResponse response, Throwable error) {
+      onAnswer(true, response, error);
+    }
+
+    private void onAnswer(boolean fromHedge, BankGatewayResponse response, Throwable error) {
+      boolean wasHedged;
+      Throwable failure = null;
+      synchronized (this) {
+        outstanding--;
+        wasHedged = hedged;
+        if (error != null) {
+          if (reportedError == null || (canFailOver(reportedError) && !canFailOver(error))) {
+            reportedError = error;
+          }
+          if (outstanding > 0) {
+            return;
+          }
+          failure = reportedError;
+        }
+      }
+      // Complete outside the lock, as completion runs the caller's stages
+      if (failure != null) {
+        result.completeExceptionally(failure);
+      } else if (result.complete(response) && wasHedged) {
+        metrics.recordHedgeWin(fromHedge);
+      }
+    }
+  }
+
+  private static final class Route {
+
+    private final BankGatewayClient client;
+    private final Set<String> currencies;
+    private final int[] binBounds;
+
+    private Route(BankGatewayClient client, Set<String> currencies, int[] binBounds) {
+      this.client = client;
+      this.currencies = currencies;
+      this.binBounds = binBounds;
+    }
+
+    private boolean accepts(String currency, int bin) {
+      if (!currencies.isEmpty() && !currencies.contains(currency)) {
+        return false;
+      }
+      if (binBounds.length == 0) {
+        return true;
+      }
+      for (int i = 0; i < binBounds.length; i += 2) {
+        if (bin >= binBounds[i] && bin <= binBounds[i + 1]) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private double score() {
+      return client.getCircuitBreaker().isCallPermitted()
+          ? client.getLatencyEwmaNanos()
+          : Double.POSITIVE_INFINITY;
+    }
+  }
+}
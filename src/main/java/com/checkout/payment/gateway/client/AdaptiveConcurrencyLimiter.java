@@ -0,0 +1,84 @@
+package com.checkout.payment.gateway.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to acquirer latency using a latency gradient.
+ * <p>
+ * The limiter tracks a slow-moving average of round-trip time as its baseline. Each sample
+ * scales the limit by {@code baseline / sample} (clamped to [0.5, 1]), so the limit shrinks as
+ * latency rises above the baseline, plus a headroom of {@code sqrt(limit)} that lets it grow while
+ * latency is steady. Calls that time out or fail to connect halve the gradient. The limit always
+ * stays within {@code [minLimit, maxLimit]}.
+ * <p>
+ * {@link #tryAcquire()} never blocks: calls above the current limit are rejected immediately.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private static final double BASELINE_SMOOTHING = 0.05;
+  private static final double LIMIT_SMOOTHING = 0.2;
+  private static final double MIN_GRADIENT = 0.5;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private volatile double limit;
+  private double baselineRttNanos;
+
+  public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  /**
+   * Returns whether a call may start. Every acquired call must be followed by exactly one of
+   * {@link #onSample(long)}, {@link #onDropped()} or {@link #onIgnored()}.
+   */
+  public boolean tryAcquire() {
+    int current = inFlight.incrementAndGet();
+    if (current > (int) limit) {
+      inFlight.decrementAndGet();
+      return false;
+    }
+    return true;
+  }
+
+  public void onSample(long rttNanos) {
+    inFlight.decrementAndGet();
+    update(rttNanos, false);
+  }
+
+  public void onDropped() {
+    inFlight.decrementAndGet();
+    update(0, true);
+  }
+
+  public void onIgnored() {
+    inFlight.decrementAndGet();
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  private synchronized void update(long rttNanos, boolean dropped) {
+    double gradient;
+    if (dropped) {
+      gradient = MIN_GRADIENT;
+    } else {
+      baselineRttNanos = baselineRttNanos == 0
+          ? rttNanos
+          : baselineRttNanos * (1 - BASELINE_SMOOTHING) + rttNanos * BASELINE_SMOOTHING;
+      gradient = Math.max(MIN_GRADIENT, Math.min(1.0, baselineRttNanos / Math.max(1, rttNanos)));
+    }
+    double target = limit * gradient + Math.sqrt(limit);
+    double smoothed = limit * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING;
+    limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+  }
+}
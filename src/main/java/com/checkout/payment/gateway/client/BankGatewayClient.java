@@ -0,0 +1,259 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.configuration.BankGatewayProperties;
+import com.checkout.payment.gateway.exception.BankGatewayException;
+import com.checkout.payment.gateway.exception.BankGatewayUnavailableException;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Sends authorization requests to one acquiring bank; {@link AcquirerRouter} holds a client per
+ * configured acquirer.
+ * <p>
+ * Uses the shared {@code bankHttpClient}, so connections are pooled and kept alive between calls,
+ * and bounds every call by {@code bank.gateway.request-timeout}. Calls are non-blocking.
+ * <p>
+ * Each call must pass an {@link AdaptiveConcurrencyLimiter}, whose limit shrinks as acquirer
+ * latency rises and never exceeds {@code bank.gateway.max-in-flight}, and a {@link CircuitBreaker}
+ * that opens when too many recent calls failed with a 5xx or a communication error. Calls that
+ * are not admitted fail immediately with {@link BankGatewayUnavailableException}.
+ * <p>
+ * With {@code bank.gateway.batching.enabled=true}, concurrent authorizations are grouped by a
+ * {@link BankRequestBatcher} and sent to the acquirer's {@code /payments/batch} endpoint. The
+ * limiter and circuit breaker then see one call per batch; a payment the acquirer fails inside an
+ * otherwise successful batch fails on its own.
+ */
+public class BankGatewayClient {
+
+  private static final String PAYMENT_ENDPOINT = "/payments";
+  private static final String BATCH_ENDPOINT = "/payments/batch";
+  static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+  private final String name;
+  private final HttpClient httpClient;
+  private final URI paymentUri;
+  private final URI batchUri;
+  private final Duration requestTimeout;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final CircuitBreaker circuitBreaker;
+  private final LatencyEwma latency;
+  private final LatencyPercentile hedgePercentile;
+  private final PaymentMetrics metrics;
+  private final BankRequestBatcher batcher;
+
+  public BankGatewayClient(HttpClient bankHttpClient, BankGatewayProperties properties,
+      PaymentMetrics metrics) {
+    this(AcquirerRouter.DEFAULT_ACQUIRER, properties.getBaseUrl(), bankHttpClient, properties,
+        metrics);
+  }
+
+  /**
+   * Creates a client for one acquirer; limiter, breaker and batching settings are shared by all
+   * acquirers.
+   */
+  public BankGatewayClient(String name, String baseUrl, HttpClient bankHttpClient,
+      BankGatewayProperties properties, PaymentMetrics metrics) {
+    this.name = name;
+    this.httpClient = bankHttpClient;
+    this.metrics = metrics;
+    this.paymentUri = URI.create(baseUrl + PAYMENT_ENDPOINT);
+    this.batchUri = URI.create(baseUrl + BATCH_ENDPOINT);
+    this.requestTimeout = properties.getRequestTimeout();
+    int initialLimit = properties.getConcurrencyLimit().getInitial();
+    this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(
+        initialLimit > 0 ? initialLimit : properties.getMaxInFlight(),
+        properties.getConcurrencyLimit().getMin(),
+        properties.getMaxInFlight());
+    BankGatewayProperties.CircuitBreaker breaker = properties.getCircuitBreaker();
+    this.circuitBreaker = new CircuitBreaker(breaker.getWindowSize(), breaker.getMinimumCalls(),
+        breaker.getFailureRateThreshold(), breaker.getOpenDuration());
+    this.latency = new LatencyEwma(properties.getRouting().getEwmaAlpha());
+    this.hedgePercentile = new LatencyPercentile(properties.getHedging().getPercentile());
+    BankGatewayProperties.Batching batching = properties.getBatching();
+    this.batcher = batching.isEnabled()
+        ? new BankRequestBatcher(batching.getMaxSize(), batching.getMaxDelay(), this::sendBatch)
+        : null;
+  }
+
+  public CompletableFuture<BankGatewayResponse> authorize(PostPaymentRequest paymentRequest) {
+    return authorize(paymentRequest, null);
+  }
+
+  /**
+   * Authorizes a payment, sending {@code idempotencyReference} (when not {@code null}) as the
+   * {@value #IDEMPOTENCY_KEY_HEADER} header so the acquirer can recognize repeated attempts.
+   * Batched calls carry no reference.
+   */
+  public CompletableFuture<BankGatewayResponse> authorize(PostPaymentRequest paymentRequest,
+      String idempotencyReference) {
+    if (batcher != null) {
+      return batcher.submit(paymentRequest);
+    }
+    return post(paymentUri, idempotencyReference,
+        () -> BankWireCodec.encodeRequest(paymentRequest),
+        this::getValidatedResponseFromBankGateway);
+  }
+
+  public void close() {
+    if (batcher != null) {
+      batcher.close();
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Moving average of this acquirer's call latency in nanoseconds, 0 before the first call.
+   */
+  public double getLatencyEwmaNanos() {
+    return latency.getNanos();
+  }
+
+  /**
+   * Recent latency at {@code bank.gateway.hedging.percentile} in nanoseconds, or -1 until enough
+   * calls have completed.
+   */
+  public long getHedgeDelayNanos() {
+    return hedgePercentile.getNanos();
+  }
+
+  public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+    return concurrencyLimiter;
+  }
+
+  public CircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  private void sendBatch(List<PostPaymentRequest> requests,
+      List<CompletableFuture<BankGatewayResponse>> results) {
+    post(batchUri, null, () -> BankWireCodec.encodeBatchRequest(requests),
+        response -> getValidatedBatchResponse(response, requests.size()))
+        .whenComplete((items, error) -> {
+          for (int i = 0; i < results.size(); i++) {
+            if (error != null) {
+              results.get(i).completeExceptionally(
+                  error instanceof CompletionException ? error.getCause() : error);
+            } else if (items.get(i).getResponse() != null) {
+              results.get(i).complete(items.get(i).getResponse());
+            } else {
+              int statusCode = items.get(i).getStatusCode();
+              results.get(i).completeExceptionally(new BankGatewayException(
+                  "Error from bank gateway: " + statusCode, statusCode));
+            }
+          }
+        });
+  }
+
+  /**
+   * Sends one call to the acquirer once the concurrency limiter and circuit breaker admit it.
+   */
+  private <T> CompletableFuture<T> post(URI uri, String idempotencyReference,
+      Supplier<byte[]> body, Function<HttpResponse<byte[]>, T> responseReader) {
+    if (!concurrencyLimiter.tryAcquire()) {
+      return CompletableFuture.failedFuture(
+          new BankGatewayUnavailableException("Bank gateway concurrency limit reached"));
+    }
+    if (!circuitBreaker.tryAcquirePermission()) {
+      concurrencyLimiter.onIgnored();
+      return CompletableFuture.failedFuture(
+          new BankGatewayUnavailableException("Bank gateway circuit breaker is open"));
+    }
+
+    long start = System.nanoTime();
+    CompletableFuture<T> result;
+    try {
+      HttpRequest.Builder request = HttpRequest.newBuilder()
+          .uri(uri)
+          .timeout(requestTimeout)
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofByteArray(body.get()));
+      if (idempotencyReference != null) {
+        request.header(IDEMPOTENCY_KEY_HEADER, idempotencyReference);
+      }
+
+      result = httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+          .handle((response, error) -> {
+            recordOutcome(response, error, System.nanoTime() - start);
+            if (error != null) {
+              throw communicationError(error);
+            }
+            return responseReader.apply(response);
+          });
+    } catch (Exception e) {
+      concurrencyLimiter.onIgnored();
+      circuitBreaker.onIgnored();
+      result = CompletableFuture.failedFuture(communicationError(e));
+    }
+    return result;
+  }
+
+  private void recordOutcome(HttpResponse<?> response, Throwable error, long rttNanos) {
+    metrics.recordStage(PaymentMetrics.Stage.BANK, rttNanos);
+    metrics.recordBankResponse(error != null ? -1 : response.statusCode());
+    // Failed calls count too, so an acquirer that times out stops looking fast
+    latency.record(rttNanos);
+    if (error != null) {
+      concurrencyLimiter.onDropped();
+      circuitBreaker.onFailure();
+      return;
+    }
+    concurrencyLimiter.onSample(rttNanos);
+    hedgePercentile.record(rttNanos);
+    if (response.statusCode() >= 500) {
+      circuitBreaker.onFailure();
+    } else {
+      circuitBreaker.onSuccess();
+    }
+  }
+
+  private BankGatewayException communicationError(Throwable error) {
+    Throwable cause = error instanceof CompletionException && error.getCause() != null
+        ? error.getCause()
+        : error;
+    // Only HTTP communication errors (network, timeout, serialization, etc.) reach this point
+    return new BankGatewayException("Error communicating with bank gateway: " + cause.getMessage());
+  }
+
+  private BankGatewayResponse getValidatedResponseFromBankGateway(HttpResponse<byte[]> response) {
+    if (response.statusCode() != 200) {
+      throw new BankGatewayException("Error from bank gateway: " + response.statusCode() + " - "
+          + new String(response.body(), StandardCharsets.UTF_8), response.statusCode());
+    }
+
+    try {
+      return BankWireCodec.decodeResponse(response.body());
+    } catch (Exception e) {
+      throw new BankGatewayException("Malformed response from bank gateway: "
+          + new String(response.body(), StandardCharsets.UTF_8));
+    }
+  }
+
+  private List<BankWireCodec.BatchItem> getValidatedBatchResponse(HttpResponse<byte[]> response,
+      int expectedItems) {
+    if (response.statusCode() != 200) {
+      throw new BankGatewayException("Error from bank gateway: " + response.statusCode() + " - "
+          + new String(response.body(), StandardCharsets.UTF_8), response.statusCode());
+    }
+
+    try {
+      return BankWireCodec.decodeBatchResponse(response.body(), expectedItems);
+    } catch (Exception e) {
+      throw new BankGatewayException("Malformed response from bank gateway: "
+          + new String(response.body(), StandardCharsets.UTF_8));
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.checkout.payment.gateway.client;
+
+public class BankGatewayResponse {
+  private final boolean authorized;
+  private final String authorizationCode;
+
+  public BankGatewayResponse(boolean authorized, String authorizationCode) {
+    this.authorized = authorized;
+    this.authorizationCode = authorizationCode;
+  }
+
+  public boolean isAuthorized() {
+    return authorized;
+  }
+
+  public String getAuthorizationCode() {
+    return authorizationCode;
+  }
+
+  @Override
+  public String toString() {
+    return "BankGatewayResponse{" +
+        "authorized=" + authorized +
+        ", authorizationCode='" + authorizationCode + '\'' +
+        '}';
+  }
+}
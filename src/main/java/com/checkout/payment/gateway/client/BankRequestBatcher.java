@@ -0,0 +1,119 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects concurrent authorizations into batches of up to {@code maxSize} payments.
+ * <p>
+ * A batch is sent as soon as it is full, or {@code maxDelay} after its first payment arrived,
+ * whichever comes first. Sending hands the requests and their pending results to a
+ * {@link BatchSender}, which completes every result once the acquirer has answered.
+ */
+public class BankRequestBatcher {
+
+  /**
+   * Sends one batch. Must complete every future in {@code results}, which line up with
+   * {@code requests}.
+   */
+  public interface BatchSender {
+    void send(List<PostPaymentRequest> requests,
+        List<CompletableFuture<BankGatewayResponse>> results);
+  }
+
+  private final int maxSize;
+  private final long maxDelayNanos;
+  private final BatchSender sender;
+  private final ScheduledExecutorService scheduler;
+  private final ReentrantLock lock = new ReentrantLock();
+  private List<PostPaymentRequest> requests;
+  private List<CompletableFuture<BankGatewayResponse>> results;
+  private long batchNumber;
+
+  public BankRequestBatcher(int maxSize, Duration maxDelay, BatchSender sender) {
+    this.maxSize = Math.max(1, maxSize);
+    this.maxDelayNanos = Math.max(0, maxDelay.toNanos());
+    this.sender = sender;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "bank-request-batcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    startBatch();
+  }
+
+  public CompletableFuture<BankGatewayResponse> submit(PostPaymentRequest request) {
+    CompletableFuture<BankGatewayResponse> result = new CompletableFuture<>();
+    List<PostPaymentRequest> fullRequests = null;
+    List<CompletableFuture<BankGatewayResponse>> fullResults = null;
+    lock.lock();
+    try {
+      requests.add(request);
+      results.add(result);
+      if (requests.size() >= maxSize) {
+        fullRequests = requests;
+        fullResults = results;
+        startBatch();
+      } else if (requests.size() == 1) {
+        long batch = batchNumber;
+        scheduler.schedule(() -> flush(batch), maxDelayNanos, TimeUnit.NANOSECONDS);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (fullRequests != null) {
+      send(fullRequests, fullResults);
+    }
+    return result;
+  }
+
+  /**
+   * Sends whatever is pending and stops the timer thread.
+   */
+  public void close() {
+    flush(-1);
+    scheduler.shutdown();
+  }
+
+  private void flush(long batch) {
+    List<PostPaymentRequest> pendingRequests;
+    List<CompletableFuture<BankGatewayResponse>> pendingResults;
+    lock.lock();
+    try {
+      // A full batch may already have been sent, in which case this timer is stale
+      if ((batch >= 0 && batch != batchNumber) || requests.isEmpty()) {
+        return;
+      }
+      pendingRequests = requests;
+      pendingResults = results;
+      startBatch();
+    } finally {
+      lock.unlock();
+    }
+    send(pendingRequests, pendingResults);
+  }
+
+  private void send(List<PostPaymentRequest> batchRequests,
+      List<CompletableFuture<BankGatewayResponse>> batchResults) {
+    try {
+      sender.send(batchRequests, batchResults);
+    } catch (RuntimeException e) {
+      for (CompletableFuture<BankGatewayResponse> result : batchResults) {
+        result.completeExceptionally(e);
+      }
+    }
+  }
+
+  private void startBatch() {
+    requests = new ArrayList<>(maxSize);
+    results = new ArrayList<>(maxSize);
+    batchNumber++;
+  }
+}
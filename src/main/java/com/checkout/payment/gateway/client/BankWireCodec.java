@@ -0,0 +1,248 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes authorization requests to, and decodes responses from, the acquirer's JSON wire format.
+ * <p>
+ * Requests are written from a precomputed field layout into a single exactly-sized byte array,
+ * without building a map or an intermediate string. Responses are read with a streaming parser
+ * straight into a {@link BankGatewayResponse}.
+ * <p>
+ * The batch endpoint takes a JSON array of request objects and answers with an array of the same
+ * length and order. Each element is either a single-payment response or
+ * {@code {"status_code": <int>}} when that payment failed on the acquirer's side.
+ */
+public final class BankWireCodec {
+
+  private static final byte[] CARD_NUMBER = ascii("{\"card_number\":\"");
+  private static final byte[] EXPIRY_DATE = ascii("\",\"expiry_date\":\"");
+  private static final byte[] CURRENCY = ascii("\",\"currency\":\"");
+  private static final byte[] AMOUNT = ascii("\",\"amount\":");
+  private static final byte[] CVV = ascii(",\"cvv\":");
+  private static final byte[] END = ascii("}");
+  private static final int FIXED_LENGTH = CARD_NUMBER.length + EXPIRY_DATE.length
+      + CURRENCY.length + AMOUNT.length + CVV.length + END.length;
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private BankWireCodec() {
+  }
+
+  /**
+   * Returns the request body for the acquirer's {@code /payments} endpoint.
+   *
+   * @throws IllegalArgumentException if the card number is not numeric or the currency is not
+   *     supported, i.e. the request has not passed validation
+   */
+  public static byte[] encodeRequest(PostPaymentRequest request) {
+    String cardNumber = request.getCardNumber();
+    Currency currency = Currency.fromValue(request.getCurrency());
+    if (cardNumber == null || !isNumeric(cardNumber) || currency == null) {
+      throw new IllegalArgumentException("Payment request has not been validated");
+    }
+    String currencyCode = currency.getValue();
+    int month = request.getExpiryMonth();
+    int monthLength = month >= 0 && month < 10 ? 2 : digits(month);
+
+    byte[] body = new byte[FIXED_LENGTH + cardNumber.length() + monthLength + 1
+        + digits(request.getExpiryYear()) + currencyCode.length() + digits(request.getAmount())
+        + digits(request.getCvv())];
+    int position = put(body, 0, CARD_NUMBER);
+    position = put(body, position, cardNumber);
+    position = put(body, position, EXPIRY_DATE);
+    if (monthLength == 2 && month < 10) {
+      body[position++] = '0';
+    }
+    position = put(body, position, month);
+    body[position++] = '/';
+    position = put(body, position, request.getExpiryYear());
+    position = put(body, position, CURRENCY);
+    position = put(body, position, currencyCode);
+    position = put(body, position, AMOUNT);
+    position = put(body, position, request.getAmount());
+    position = put(body, position, CVV);
+    position = put(body, position, request.getCvv());
+    put(body, position, END);
+    return body;
+  }
+
+  /**
+   * Returns the request body for the acquirer's {@code /payments/batch} endpoint.
+   */
+  public static byte[] encodeBatchRequest(List<PostPaymentRequest> requests) {
+    byte[][] encoded = new byte[requests.size()][];
+    int length = 2 + Math.max(0, requests.size() - 1);
+    for (int i = 0; i < encoded.length; i++) {
+      encoded[i] = encodeRequest(requests.get(i));
+      length += encoded[i].length;
+    }
+    byte[] body = new byte[length];
+    body[0] = '[';
+    int position = 1;
+    for (int i = 0; i < encoded.length; i++) {
+      if (i > 0) {
+        body[position++] = ',';
+      }
+      position = put(body, position, encoded[i]);
+    }
+    body[position] = ']';
+    return body;
+  }
+
+  /**
+   * Reads an acquirer response of the form
+   * {@code {"authorized": <boolean>, "authorization_code": <string>}}; other fields are ignored.
+   *
+   * @throws IOException if the body is not valid JSON or a required field is missing or mistyped
+   */
+  public static BankGatewayResponse decodeResponse(byte[] body) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Expected a JSON object");
+      }
+      BatchItem item = readItem(parser);
+      if (item.getResponse() == null) {
+        throw new IOException("Missing authorized or authorization_code");
+      }
+      return item.getResponse();
+    }
+  }
+
+  /**
+   * Reads a {@code /payments/batch} response.
+   *
+   * @throws IOException if the body is malformed or does not hold {@code expectedItems} elements
+   */
+  public static List<BatchItem> decodeBatchResponse(byte[] body, int expectedItems)
+      throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new IOException("Expected a JSON array");
+      }
+      List<BatchItem> items = new ArrayList<>(expectedItems);
+      JsonToken token;
+      while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+        BatchItem item = readItem(parser);
+        if (item.getResponse() == null && item.getStatusCode() == 0) {
+          throw new IOException("Batch item has neither a result nor a status code");
+        }
+        items.add(item);
+      }
+      if (token != JsonToken.END_ARRAY || items.size() != expectedItems) {
+        throw new IOException("Expected " + expectedItems + " batch results");
+      }
+      return items;
+    }
+  }
+
+  private static BatchItem readItem(JsonParser parser) throws IOException {
+    Boolean authorized = null;
+    String authorizationCode = null;
+    boolean hasAuthorizationCode = false;
+    int statusCode = 0;
+    String field;
+    while ((field = parser.nextFieldName()) != null) {
+      JsonToken value = parser.nextToken();
+      if ("authorized".equals(field) && value.isBoolean()) {
+        authorized = value == JsonToken.VALUE_TRUE;
+      } else if ("authorization_code".equals(field)
+          && (value == JsonToken.VALUE_STRING || value == JsonToken.VALUE_NULL)) {
+        authorizationCode = parser.getValueAsString();
+        hasAuthorizationCode = true;
+      } else if ("status_code".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+        statusCode = parser.getIntValue();
+      } else {
+        parser.skipChildren();
+      }
+    }
+    if (authorized == null || !hasAuthorizationCode) {
+      return new BatchItem(null, statusCode);
+    }
+    return new BatchItem(new BankGatewayResponse(authorized, authorizationCode), 0);
+  }
+
+  private static boolean isNumeric(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int digits(int value) {
+    if (value == Integer.MIN_VALUE) {
+      return 11;
+    }
+    int length = value < 0 ? 2 : 1;
+    for (int remaining = Math.abs(value); remaining >= 10; remaining /= 10) {
+      length++;
+    }
+    return length;
+  }
+
+  private static int put(byte[] body, int position, byte[] bytes) {
+    System.arraycopy(bytes, 0, body, position, bytes.length);
+    return position + bytes.length;
+  }
+
+  private static int put(byte[] body, int position, String ascii) {
+    for (int i = 0; i < ascii.length(); i++) {
+      body[position++] = (byte) ascii.charAt(i);
+    }
+    return position;
+  }
+
+  private static int put(byte[] body, int position, int value) {
+    if (value == Integer.MIN_VALUE) {
+      return put(body, position, Integer.toString(value));
+    }
+    int end = position + digits(value);
+    if (value < 0) {
+      body[position] = '-';
+      value = -value;
+    }
+    int index = end;
+    do {
+      body[--index] = (byte) ('0' + value % 10);
+      value /= 10;
+    } while (value != 0);
+    return end;
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Outcome of one payment in a batch: the acquirer's response, or the status code it failed
+   * with.
+   */
+  public static final class BatchItem {
+    private final BankGatewayResponse response;
+    private final int statusCode;
+
+    private BatchItem(BankGatewayResponse response, int statusCode) {
+      this.response = response;
+      this.statusCode = statusCode;
+    }
+
+    public BankGatewayResponse getResponse() {
+      return response;
+    }
+
+    public int getStatusCode() {
+      return statusCode;
+    }
+  }
+}
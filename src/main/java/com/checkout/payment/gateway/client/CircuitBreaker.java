@@ -0,0 +1,145 @@
+package com.checkout.payment.gateway.client;
+
+import java.time.Duration;
+
+/**
+ * Failure-rate circuit breaker over a sliding window of the most recent calls.
+ * <p>
+ * While {@link State#CLOSED} every call is permitted. Once at least {@code minimumCalls} of the
+ * last {@code windowSize} calls have been recorded and the share of failures reaches
+ * {@code failureRateThreshold}, the breaker opens and rejects calls for {@code openDuration}. It
+ * then lets a single probe through: success closes the breaker, failure opens it again.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final boolean[] window;
+  private final int minimumCalls;
+  private final double failureRateThreshold;
+  private final long openDurationNanos;
+
+  private State state = State.CLOSED;
+  private int next;
+  private int recorded;
+  private int failures;
+  private long openedAt;
+  private boolean probeInFlight;
+
+  public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+      Duration openDuration) {
+    this.window = new boolean[windowSize];
+    this.minimumCalls = Math.min(minimumCalls, windowSize);
+    this.failureRateThreshold = failureRateThreshold;
+    this.openDurationNanos = openDuration.toNanos();
+  }
+
+  /**
+   * Returns whether a call may proceed. Every permitted call must be followed by exactly one of
+   * {@link #onSuccess()}, {@link #onFailure()} or {@link #onIgnored()}.
+   */
+  public synchronized boolean tryAcquirePermission() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (System.nanoTime() - openedAt < openDurationNanos) {
+          return false;
+        }
+        state = State.HALF_OPEN;
+        probeInFlight = true;
+        return true;
+      default:
+        if (probeInFlight) {
+          return false;
+        }
+        probeInFlight = true;
+        return true;
+    }
+  }
+
+  /**
+   * Returns whether {@link #tryAcquirePermission()} would permit a call now, without taking the
+   * permission.
+   */
+  public synchronized boolean isCallPermitted() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        return System.nanoTime() - openedAt >= openDurationNanos;
+      default:
+        return !probeInFlight;
+    }
+  }
+
+  public synchronized void onSuccess() {
+    if (state == State.HALF_OPEN) {
+      reset(State.CLOSED);
+      return;
+    }
+    record(false);
+  }
+
+  public synchronized void onFailure() {
+    if (state == State.HALF_OPEN) {
+      open();
+      return;
+    }
+    record(true);
+    if (recorded >= minimumCalls && failureRate() >= failureRateThreshold) {
+      open();
+    }
+  }
+
+  /**
+   * Releases a permission without recording an outcome, e.g. when the call was never made.
+   */
+  public synchronized void onIgnored() {
+    if (state == State.HALF_OPEN) {
+      probeInFlight = false;
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  public synchronized double getFailureRate() {
+    return recorded == 0 ? 0 : failureRate();
+  }
+
+  private double failureRate() {
+    return (double) failures / recorded;
+  }
+
+  private void record(boolean failure) {
+    if (recorded == window.length) {
+      if (window[next]) {
+        failures--;
+      }
+    } else {
+      recorded++;
+    }
+    window[next] = failure;
+    if (failure) {
+      failures++;
+    }
+    next = (next + 1) % window.length;
+  }
+
+  private void open() {
+    reset(State.OPEN);
+    openedAt = System.nanoTime();
+  }
+
+  private void reset(State newState) {
+    state = newState;
+    next = 0;
+    recorded = 0;
+    failures = 0;
+    probeInFlight = false;
+  }
+}
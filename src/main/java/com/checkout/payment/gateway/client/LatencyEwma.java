@@ -0,0 +1,40 @@
+package com.checkout.payment.gateway.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exponentially weighted moving average of call latency. Each sample moves the average by
+ * {@code alpha} of its distance from it, so recent calls dominate. Reads 0 until the first sample.
+ */
+class LatencyEwma {
+
+  private final double alpha;
+  private final AtomicLong averageBits = new AtomicLong(Double.doubleToRawLongBits(0));
+  private volatile boolean sampled;
+
+  LatencyEwma(double alpha) {
+    if (alpha <= 0 || alpha > 1) {
+      throw new IllegalArgumentException("EWMA alpha must be in (0, 1], was " + alpha);
+    }
+    this.alpha = alpha;
+  }
+
+  void record(long nanos) {
+    if (!sampled) {
+      sampled = true;
+      averageBits.set(Double.doubleToRawLongBits(nanos));
+      return;
+    }
+    long current;
+    double updated;
+    do {
+      current = averageBits.get();
+      double average = Double.longBitsToDouble(current);
+      updated = average + alpha * (nanos - average);
+    } while (!averageBits.compareAndSet(current, Double.doubleToRawLongBits(updated)));
+  }
+
+  double getNanos() {
+    return Double.longBitsToDouble(averageBits.get());
+  }
+}
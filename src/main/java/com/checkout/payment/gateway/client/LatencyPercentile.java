@@ -0,0 +1,70 @@
+package com.checkout.payment.gateway.client;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Estimates a latency percentile over the most recent {@value #WINDOW} calls.
+ * <p>
+ * Recording only writes into a ring buffer. The percentile is recomputed from a sorted copy of
+ * the buffer at most every {@value #REFRESH_MILLIS} ms, by whichever reader first finds it stale,
+ * and reads -1 until {@value #MIN_SAMPLES} calls have been recorded.
+ */
+class LatencyPercentile {
+
+  private static final int WINDOW = 1024;
+  private static final int MIN_SAMPLES = 64;
+  private static final long REFRESH_MILLIS = 100;
+  private static final long REFRESH_NANOS = TimeUnit.MILLISECONDS.toNanos(REFRESH_MILLIS);
+
+  private final double percentile;
+  private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+  private final AtomicLong recorded = new AtomicLong();
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+  private volatile long estimateNanos = -1;
+  private volatile long refreshedAt = System.nanoTime() - REFRESH_NANOS;
+
+  LatencyPercentile(double percentile) {
+    if (percentile <= 0 || percentile > 1) {
+      throw new IllegalArgumentException("Percentile must be in (0, 1], was " + percentile);
+    }
+    this.percentile = percentile;
+  }
+
+  void record(long nanos) {
+    samples.set((int) (recorded.getAndIncrement() % WINDOW), nanos);
+  }
+
+  long getNanos() {
+    long now = System.nanoTime();
+    if (now - refreshedAt >= REFRESH_NANOS && refreshing.compareAndSet(false, true)) {
+      try {
+        long estimate = compute();
+        estimateNanos = estimate;
+        // Keep trying on every read until there is a first estimate
+        if (estimate >= 0) {
+          refreshedAt = now;
+        }
+      } finally {
+        refreshing.set(false);
+      }
+    }
+    return estimateNanos;
+  }
+
+  private long compute() {
+    int size = (int) Math.min(recorded.get(), WINDOW);
+    if (size < MIN_SAMPLES) {
+      return -1;
+    }
+    long[] sorted = new long[size];
+    for (int i = 0; i < size; i++) {
+      sorted[i] = samples.get(i);
+    }
+    Arrays.sort(sorted);
+    return sorted[Math.max(0, (int) Math.ceil(percentile * size) - 1)];
+  }
+}
@@ -0,0 +1,207 @@
+package com.checkout.payment.gateway.cluster;
+
+import com.checkout.payment.gateway.exception.ClusterUnavailableException;
+import com.checkout.payment.gateway.repository.PaymentRecord;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Calls the internal endpoints of other gateway nodes.
+ * <p>
+ * Payments travel as raw {@link PaymentRecord} bytes with no framing or field names, so a
+ * forwarded read costs one small request and a handoff is a single body of records back to back,
+ * read and stored one record at a time.
+ * Membership is exchanged as lines of {@link ClusterNode#format()}.
+ * <p>
+ * Every call carries the cluster's shared secret in {@value #SECRET_HEADER}, and the internal
+ * endpoints refuse calls without it (see {@link #isAuthorized(String)}).
+ */
+public class ClusterClient {
+
+  public static final String PAYMENT_ENDPOINT = "/internal/cluster/payments/";
+  public static final String PARTITIONS_ENDPOINT = "/internal/cluster/partitions";
+  public static final String MEMBERS_ENDPOINT = "/internal/cluster/members";
+  public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+  private static final String OCTET_STREAM = "application/octet-stream";
+
+  private final HttpClient httpClient;
+  private final Duration requestTimeout;
+  private final Duration handoffTimeout;
+  private final String secret;
+  private final byte[] secretBytes;
+
+  public ClusterClient(HttpClient httpClient, Duration requestTimeout, Duration handoffTimeout,
+      String secret) {
+    if (secret == null || secret.isBlank()) {
+      throw new IllegalArgumentException("A cluster secret is required");
+    }
+    this.httpClient = httpClient;
+    this.requestTimeout = requestTimeout;
+    this.handoffTimeout = handoffTimeout;
+    this.secret = secret;
+    this.secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Whether {@code presented}, the {@value #SECRET_HEADER} of an incoming call, is this cluster's
+   * secret. Compared in constant time.
+   */
+  public boolean isAuthorized(String presented) {
+    return presented != null
+        && MessageDigest.isEqual(secretBytes, presented.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Reads one payment from {@code node}'s local store. Fails with
+   * {@link ClusterUnavailableException} when the node cannot be reached.
+   */
+  public CompletableFuture<Optional<PaymentRecord>> fetchPayment(ClusterNode node, UUID id) {
+    HttpRequest request = HttpRequest.newBuilder(node.getUrl().resolve(PAYMENT_ENDPOINT + id))
+        .timeout(requestTimeout)
+        .header("Accept", OCTET_STREAM)
+        .header(SECRET_HEADER, secret)
+        .GET()
+        .build();
+    return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+        .handle((response, error) -> {
+          if (error != null) {
+            throw new ClusterUnavailableException(
+                "Node " + node.getName() + " unreachable: " + error.getMessage());
+          }
+          if (response.statusCode() == 404) {
+            return Optional.empty();
+          }
+          byte[] body = response.body();
+          if (response.statusCode() != 200 || body.length < PaymentRecord.SIZE
+              || PaymentRecord.wrap(body).length() != body.length) {
+            throw new ClusterUnavailableException(
+                "Node " + node.getName() + " answered " + response.statusCode());
+          }
+          return Optional.of(PaymentRecord.wrap(body));
+        });
+  }
+
+  /**
+   * Reads every payment {@code node} holds in the given partitions and passes each record to
+   * {@code consumer} as it arrives. The node must start answering within the request timeout and
+   * finish within the handoff timeout, or the call fails with {@link HttpTimeoutException}.
+   */
+  public void fetchPartitions(ClusterNode node, int[] partitions, Consumer<byte[]> consumer)
+      throws IOException, InterruptedException {
+    StringJoiner ids = new StringJoiner(",");
+    for (int partition : partitions) {
+      ids.add(Integer.toString(partition));
+    }
+    HttpRequest request = HttpRequest.newBuilder(
+            node.getUrl().resolve(PARTITIONS_ENDPOINT + "?ids=" + ids))
+        .timeout(requestTimeout)
+        .header("Accept", OCTET_STREAM)
+        .header(SECRET_HEADER, secret)
+        .GET()
+        .build();
+    HttpResponse<InputStream> response =
+        httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    try (InputStream body = response.body()) {
+      if (response.statusCode() != 200) {
+        throw new IOException("Node " + node.getName() + " answered " + response.statusCode()
+            + " to a partition handoff");
+      }
+      // The request timeout only covers the response headers; closing the body unblocks a read
+      // that is still waiting once the handoff timeout has passed
+      AtomicBoolean timedOut = new AtomicBoolean();
+      CompletableFuture<Void> deadline = CompletableFuture.runAsync(() -> {
+        timedOut.set(true);
+        try {
+          body.close();
+        } catch (IOException ignored) {
+          // The reader fails on the closed body either way
+        }
+      }, CompletableFuture.delayedExecutor(handoffTimeout.toMillis(), TimeUnit.MILLISECONDS));
+      try {
+        readRecords(node, body, consumer);
+      } catch (IOException e) {
+        if (timedOut.get()) {
+          throw new HttpTimeoutException("Partition handoff from " + node.getName()
+              + " took longer than " + handoffTimeout);
+        }
+        throw e;
+      } finally {
+        deadline.cancel(false);
+      }
+    }
+  }
+
+  private static void readRecords(ClusterNode node, InputStream body, Consumer<byte[]> consumer)
+      throws IOException {
+    byte[] fixed = new byte[PaymentRecord.SIZE];
+    int read;
+    while ((read = body.readNBytes(fixed, 0, fixed.length)) > 0) {
+      int length = read < fixed.length ? -1 : PaymentRecord.wrap(fixed).length();
+      if (length < PaymentRecord.SIZE) {
+        throw new IOException("Node " + node.getName() + " sent a malformed handoff");
+      }
+      byte[] record = Arrays.copyOf(fixed, length);
+      if (body.readNBytes(record, fixed.length, length - fixed.length) < length - fixed.length) {
+        throw new IOException("Node " + node.getName() + " sent a malformed handoff");
+      }
+      consumer.accept(record);
+    }
+  }
+
+  /**
+   * Registers {@code self} with the node at {@code url} and returns the members it knows of,
+   * including {@code self}.
+   */
+  public List<ClusterNode> join(URI url, ClusterNode self)
+      throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(url.resolve(MEMBERS_ENDPOINT))
+        .timeout(requestTimeout)
+        .header("Content-Type", "text/plain")
+        .header(SECRET_HEADER, secret)
+        .POST(HttpRequest.BodyPublishers.ofString(self.format(), StandardCharsets.UTF_8))
+        .build();
+    HttpResponse<String> response =
+        httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    if (response.statusCode() != 200) {
+      throw new IOException("Node at " + url + " answered " + response.statusCode() + " to join");
+    }
+    return parseMembers(response.body());
+  }
+
+  public static String formatMembers(List<ClusterNode> members) {
+    StringBuilder body = new StringBuilder();
+    for (ClusterNode member : members) {
+      body.append(member.format()).append('\n');
+    }
+    return body.toString();
+  }
+
+  public static List<ClusterNode> parseMembers(String body) {
+    List<ClusterNode> members = new ArrayList<>();
+    for (String line : body.split("\n")) {
+      if (!line.isBlank()) {
+        members.add(ClusterNode.parse(line));
+      }
+    }
+    return members;
+  }
+}
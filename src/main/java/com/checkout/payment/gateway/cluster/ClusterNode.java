@@ -0,0 +1,63 @@
+package com.checkout.payment.gateway.cluster;
+
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * A gateway node: the name partitions are hashed against, and the base URL its internal endpoints
+ * are served from. On the wire a node is written as {@code <name> <url>}.
+ */
+public final class ClusterNode {
+
+  private final String name;
+  private final URI url;
+
+  public ClusterNode(String name, URI url) {
+    if (name == null || name.isBlank() || name.chars().anyMatch(Character::isWhitespace)) {
+      throw new IllegalArgumentException("Node name must be non-empty without whitespace");
+    }
+    this.name = name;
+    this.url = url;
+  }
+
+  public static ClusterNode parse(String line) {
+    String[] parts = line.trim().split(" ");
+    if (parts.length != 2) {
+      throw new IllegalArgumentException("Invalid cluster node " + line);
+    }
+    return new ClusterNode(parts[0], URI.create(parts[1]));
+  }
+
+  public String format() {
+    return name + " " + url;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public URI getUrl() {
+    return url;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ClusterNode other)) {
+      return false;
+    }
+    return name.equals(other.name) && url.equals(other.url);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, url);
+  }
+
+  @Override
+  public String toString() {
+    return format();
+  }
+}
@@ -0,0 +1,143 @@
+package com.checkout.payment.gateway.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Which node owns each partition, for one membership of the cluster.
+ * <p>
+ * Owners are chosen by rendezvous (highest random weight) hashing: every node scores every
+ * partition with a hash of its name and the partition number, and the highest score wins. Adding
+ * a node therefore moves only the partitions it now wins, about 1/N of them, and removing one only
+ * moves the partitions it owned. Owners are computed once per membership, so lookups are an
+ * array read. Tables are immutable.
+ */
+public final class PartitionTable {
+
+  private static final Comparator<ClusterNode> BY_NAME = Comparator.comparing(ClusterNode::getName);
+
+  private final List<ClusterNode> members;
+  private final ClusterNode[] owners;
+
+  public PartitionTable(Collection<ClusterNode> members, int partitions) {
+    if (members.isEmpty()) {
+      throw new IllegalArgumentException("A cluster needs at least one node");
+    }
+    if (partitions < 1 || partitions > PartitionedIds.MAX_PARTITIONS) {
+      throw new IllegalArgumentException(
+          "Partitions must be between 1 and " + PartitionedIds.MAX_PARTITIONS);
+    }
+    List<ClusterNode> sorted = new ArrayList<>(members);
+    sorted.sort(BY_NAME);
+    this.members = List.copyOf(sorted);
+
+    long[] nodeHashes = new long[sorted.size()];
+    for (int i = 0; i < nodeHashes.length; i++) {
+      nodeHashes[i] = hash(sorted.get(i).getName());
+    }
+    owners = new ClusterNode[partitions];
+    for (int partition = 0; partition < partitions; partition++) {
+      int best = 0;
+      long bestWeight = weight(nodeHashes[0], partition);
+      for (int i = 1; i < nodeHashes.length; i++) {
+        long weight = weight(nodeHashes[i], partition);
+        if (Long.compareUnsigned(weight, bestWeight) > 0) {
+          best = i;
+          bestWeight = weight;
+        }
+      }
+      owners[partition] = sorted.get(best);
+    }
+  }
+
+  /**
+   * Returns a table with {@code node} added, replacing any member with the same name.
+   */
+  public PartitionTable with(ClusterNode node) {
+    List<ClusterNode> updated = new ArrayList<>(members.size() + 1);
+    for (ClusterNode member : members) {
+      if (!member.getName().equals(node.getName())) {
+        updated.add(member);
+      }
+    }
+    updated.add(node);
+    return new PartitionTable(updated, owners.length);
+  }
+
+  /**
+   * Returns a table without the member named like {@code node}, which must not be the only one.
+   */
+  public PartitionTable without(ClusterNode node) {
+    List<ClusterNode> updated = new ArrayList<>(members.size());
+    for (ClusterNode member : members) {
+      if (!member.getName().equals(node.getName())) {
+        updated.add(member);
+      }
+    }
+    return new PartitionTable(updated, owners.length);
+  }
+
+  public ClusterNode owner(int partition) {
+    return owners[partition];
+  }
+
+  public int[] partitionsOwnedBy(ClusterNode node) {
+    int count = 0;
+    for (ClusterNode owner : owners) {
+      if (owner.equals(node)) {
+        count++;
+      }
+    }
+    int[] owned = new int[count];
+    int next = 0;
+    for (int partition = 0; partition < owners.length; partition++) {
+      if (owners[partition].equals(node)) {
+        owned[next++] = partition;
+      }
+    }
+    return owned;
+  }
+
+  public List<ClusterNode> getMembers() {
+    return members;
+  }
+
+  public boolean contains(ClusterNode node) {
+    return members.contains(node);
+  }
+
+  public int getPartitions() {
+    return owners.length;
+  }
+
+  private static long weight(long nodeHash, int partition) {
+    return mix(nodeHash ^ (partition * 0x9E3779B97F4A7C15L));
+  }
+
+  /**
+   * 64-bit FNV-1a over the UTF-8 name, mixed so that similar names spread apart.
+   */
+  private static long hash(String name) {
+    long hash = 0xCBF29CE484222325L;
+    for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xFF;
+      hash *= 0x100000001B3L;
+    }
+    return mix(hash);
+  }
+
+  /**
+   * The MurmurHash3 finalizer.
+   */
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xFF51AFD7ED558CCDL;
+    value ^= value >>> 33;
+    value *= 0xC4CEB9FE1A85EC53L;
+    value ^= value >>> 33;
+    return value;
+  }
+}
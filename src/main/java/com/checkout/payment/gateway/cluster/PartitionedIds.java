@@ -0,0 +1,34 @@
+package com.checkout.payment.gateway.cluster;
+
+import java.util.UUID;
+
+/**
+ * Payment ids that carry their partition.
+ * <p>
+ * The partition number replaces the low 16 bits of a random (version 4) UUID, so any node can tell
+ * which partition, and therefore which node, holds a payment without consulting a directory. The
+ * version and variant bits are untouched, leaving 106 random bits. Ids created without a
+ * partition still map to one, taken from the same bits.
+ */
+public final class PartitionedIds {
+
+  public static final int MAX_PARTITIONS = 1 << 16;
+
+  private static final long PARTITION_MASK = MAX_PARTITIONS - 1;
+
+  private PartitionedIds() {
+  }
+
+  public static UUID newId(int partition) {
+    if (partition < 0 || partition >= MAX_PARTITIONS) {
+      throw new IllegalArgumentException("Partition must be between 0 and " + (MAX_PARTITIONS - 1));
+    }
+    UUID random = UUID.randomUUID();
+    return new UUID(random.getMostSignificantBits(),
+        (random.getLeastSignificantBits() & ~PARTITION_MASK) | partition);
+  }
+
+  public static int partitionOf(UUID id, int partitions) {
+    return (int) ((id.getLeastSignificantBits() & PARTITION_MASK) % partitions);
+  }
+}
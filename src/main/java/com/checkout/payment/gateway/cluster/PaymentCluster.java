@@ -0,0 +1,336 @@
+package com.checkout.payment.gateway.cluster;
+
+import com.checkout.payment.gateway.repository.PaymentRecord;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spreads stored payments across the gateway nodes of a cluster, enabled with
+ * {@code payments.cluster.enabled=true}.
+ * <p>
+ * Payment ids fall into {@code payments.cluster.partitions} partitions, each owned by one node
+ * (see {@link PartitionTable}). A node creates payments under ids in partitions it owns (see
+ * {@link PartitionedIds}), so writes stay local and any node can work out where a payment lives
+ * from its id. Reads that miss the local store are forwarded to the owner through
+ * {@link ClusterClient}.
+ * <p>
+ * Once its web server is up, a node registers with each of {@code payments.cluster.seeds} and with
+ * every member they report, then pulls the payments in the partitions it took over from their
+ * previous owners. Until that handoff completes, local misses are also tried on the previous
+ * owner. Unreachable seeds are skipped, so every node may list all the others. Nodes that leave
+ * are not detected.
+ * <p>
+ * Nodes authenticate each other with {@code payments.cluster.secret}, which every node must share
+ * and which is required when clustering is enabled.
+ * <p>
+ * When disabled, ids are plain random UUIDs and every read is local.
+ */
+@Component
+public class PaymentCluster {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentCluster.class);
+  private static final CompletableFuture<Optional<PaymentRecord>> NOT_FOUND =
+      CompletableFuture.completedFuture(Optional.empty());
+
+  private final boolean enabled;
+  private final ClusterNode self;
+  private final List<URI> seeds;
+  private final PaymentsRepository repository;
+  private final ClusterClient client;
+  private final ReentrantLock membershipLock = new ReentrantLock();
+  private volatile PartitionTable table;
+  private volatile int[] ownedPartitions;
+  private volatile boolean joining;
+  private volatile PartitionTable handoffTable;
+
+  public PaymentCluster(PaymentsRepository repository,
+      @Value("${payments.cluster.enabled:false}") boolean enabled,
+      @Value("${payments.cluster.node-name:}") String nodeName,
+      @Value("${payments.cluster.advertised-url:http://localhost:${server.port:8090}}")
+      URI advertisedUrl,
+      @Value("${payments.cluster.seeds:}") List<URI> seeds,
+      @Value("${payments.cluster.partitions:256}") int partitions,
+      @Value("${payments.cluster.request-timeout:2s}") Duration requestTimeout,
+      @Value("${payments.cluster.handoff-timeout:60s}") Duration handoffTimeout,
+      @Value("${payments.cluster.secret:}") String secret) {
+    this(repository, enabled,
+        new ClusterNode(nodeName.isBlank() ? advertisedUrl.getAuthority() : nodeName,
+            advertisedUrl),
+        seeds, partitions,
+        enabled ? newClient(requestTimeout, handoffTimeout, secret) : null);
+  }
+
+  PaymentCluster(PaymentsRepository repository, boolean enabled, ClusterNode self,
+      List<URI> seeds, int partitions, ClusterClient client) {
+    this.repository = repository;
+    this.enabled = enabled;
+    this.self = self;
+    this.seeds = List.copyOf(seeds);
+    this.client = client;
+    updateTable(new PartitionTable(List.of(self), partitions));
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Whether an internal call presenting {@code secret} comes from a member of this cluster.
+   */
+  public boolean isAuthorized(String secret) {
+    return enabled && client.isAuthorized(secret);
+  }
+
+  /**
+   * Returns a random id in one of this node's partitions.
+   */
+  public UUID newPaymentId() {
+    int[] owned = ownedPartitions;
+    if (!enabled || owned.length == 0) {
+      return UUID.randomUUID();
+    }
+    return PartitionedIds.newId(owned[ThreadLocalRandom.current().nextInt(owned.length)]);
+  }
+
+  /**
+   * Looks up a payment that is not in the local store on the node that should hold it. Completes
+   * empty when this node is that node, and fails with
+   * {@link com.checkout.payment.gateway.exception.ClusterUnavailableException} when the other node
+   * cannot be reached.
+   */
+  public CompletableFuture<Optional<PaymentRecord>> fetchRemote(UUID id) {
+    if (!enabled) {
+      return NOT_FOUND;
+    }
+    PartitionTable current = table;
+    int partition = PartitionedIds.partitionOf(id, current.getPartitions());
+    ClusterNode owner = current.owner(partition);
+    if (owner.equals(self)) {
+      PartitionTable handoff = handoffTable;
+      owner = handoff == null ? self : handoff.owner(partition);
+    }
+    return owner.equals(self) ? NOT_FOUND : client.fetchPayment(owner, id);
+  }
+
+  /**
+   * Adds a node that is joining, and returns every member including it.
+   */
+  public List<ClusterNode> addMember(ClusterNode node) {
+    membershipLock.lock();
+    try {
+      if (!table.contains(node) && !node.getName().equals(self.getName())) {
+        updateTable(table.with(node));
+        if (joining) {
+          handoffTable = table.without(self);
+        }
+        LOG.info("Node {} joined; {} members, {} partitions owned here", node.getName(),
+            table.getMembers().size(), ownedPartitions.length);
+      }
+      return table.getMembers();
+    } finally {
+      membershipLock.unlock();
+    }
+  }
+
+  /**
+   * Returns every live payment this node holds in {@code partitions}, as concatenated records. The
+   * records are read from the store as the stream is consumed, so the handoff is never held in
+   * memory.
+   */
+  public InputStream exportPartitions(int[] partitions) {
+    int partitionCount = table.getPartitions();
+    boolean[] selected = new boolean[partitionCount];
+    for (int partition : partitions) {
+      if (partition >= 0 && partition < partitionCount) {
+        selected[partition] = true;
+      }
+    }
+    return new PartitionExport(repository.scan(), selected);
+  }
+
+  public List<ClusterNode> getMembers() {
+    return table.getMembers();
+  }
+
+  public int getOwnedPartitionCount() {
+    return ownedPartitions.length;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void join() {
+    if (!enabled) {
+      return;
+    }
+    joining = true;
+    try {
+      Set<URI> contacted = new HashSet<>();
+      contacted.add(self.getUrl());
+      Deque<URI> pending = new ArrayDeque<>(seeds);
+      URI url;
+      while ((url = pending.poll()) != null) {
+        if (!contacted.add(url)) {
+          continue;
+        }
+        for (ClusterNode member : joinThrough(url)) {
+          addMember(member);
+          if (!contacted.contains(member.getUrl())) {
+            pending.add(member.getUrl());
+          }
+        }
+      }
+      PartitionTable previous = handoffTable;
+      if (previous != null) {
+        handOff(previous);
+      }
+    } finally {
+      joining = false;
+      handoffTable = null;
+    }
+  }
+
+  private List<ClusterNode> joinThrough(URI url) {
+    try {
+      return client.join(url, self);
+    } catch (IOException e) {
+      LOG.warn("Could not join cluster through {}: {}", url, e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return List.of();
+  }
+
+  /**
+   * Pulls the payments in the partitions this node took over from the nodes that owned them in
+   * {@code previous}. Local misses are forwarded to those nodes until it returns.
+   */
+  private void handOff(PartitionTable previous) {
+    int[] owned = ownedPartitions;
+    for (ClusterNode owner : previous.getMembers()) {
+      int[] partitions = Arrays.stream(owned)
+          .filter(partition -> previous.owner(partition).equals(owner))
+          .toArray();
+      if (partitions.length > 0) {
+        handOff(owner, partitions);
+      }
+    }
+  }
+
+  private void handOff(ClusterNode owner, int[] partitions) {
+    long start = System.nanoTime();
+    try {
+      AtomicInteger stored = new AtomicInteger();
+      client.fetchPartitions(owner, partitions, record -> {
+        if (repository.addRecord(record)) {
+          stored.incrementAndGet();
+        }
+      });
+      LOG.info("Took over {} partitions from {} with {} payments in {} ms", partitions.length,
+          owner.getName(), stored.get(), (System.nanoTime() - start) / 1_000_000);
+    } catch (IOException e) {
+      LOG.warn("Could not take over partitions from {}: {}", owner.getName(), e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void updateTable(PartitionTable updated) {
+    int[] owned = updated.partitionsOwnedBy(self);
+    if (enabled && owned.length == 0) {
+      LOG.warn("Node {} owns no partitions; raise payments.cluster.partitions", self.getName());
+    }
+    table = updated;
+    ownedPartitions = owned;
+  }
+
+  private static ClusterClient newClient(Duration requestTimeout, Duration handoffTimeout,
+      String secret) {
+    if (secret.isBlank()) {
+      throw new IllegalStateException(
+          "payments.cluster.secret must be set when payments.cluster.enabled=true");
+    }
+    return new ClusterClient(HttpClient.newBuilder().connectTimeout(requestTimeout).build(),
+        requestTimeout, handoffTimeout, secret);
+  }
+
+  /**
+   * Reads the records of the selected partitions one at a time from a store scan.
+   */
+  private static final class PartitionExport extends InputStream {
+
+    private final Iterator<PaymentRecord> payments;
+    private final boolean[] selected;
+    private byte[] record = new byte[PaymentRecord.SIZE];
+    private int position;
+    private int limit;
+
+    private PartitionExport(Iterator<PaymentRecord> payments, boolean[] selected) {
+      this.payments = payments;
+      this.selected = selected;
+    }
+
+    @Override
+    public int read() {
+      return fill() ? record[position++] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) {
+      Objects.checkFromIndexSize(offset, length, target.length);
+      int copied = 0;
+      while (copied < length && fill()) {
+        int chunk = Math.min(length - copied, limit - position);
+        System.arraycopy(record, position, target, offset + copied, chunk);
+        position += chunk;
+        copied += chunk;
+      }
+      return copied == 0 && length > 0 ? -1 : copied;
+    }
+
+    /**
+     * Loads the next selected record once the current one is consumed; false at the end.
+     */
+    private boolean fill() {
+      if (position < limit) {
+        return true;
+      }
+      while (payments.hasNext()) {
+        PaymentRecord payment = payments.next();
+        if (selected[PartitionedIds.partitionOf(payment.getId(), selected.length)]) {
+          int length = payment.length();
+          if (length > record.length) {
+            record = new byte[length];
+          }
+          payment.copyTo(record, 0);
+          position = 0;
+          limit = length;
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -1,19 +1,79 @@
 package com.checkout.payment.gateway.configuration;
 
-import java.time.Duration;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
 
 @Configuration
+@EnableConfigurationProperties(BankGatewayProperties.class)
 public class ApplicationConfiguration {
 
   @Bean
-  public RestTemplate restTemplate(RestTemplateBuilder builder) {
-    return builder
-        .setConnectTimeout(Duration.ofMillis(10000))
-        .setReadTimeout(Duration.ofMillis(10000))
+  public Clock clock() {
+    return Clock.systemDefaultZone();
+  }
+
+  /**
+   * Runs bank client work on a fixed pool of platform threads, or on a new virtual thread per task
+   * when {@code spring.threads.virtual.enabled} is set. Concurrency is bounded by
+   * {@code bank.gateway.max-in-flight} either way.
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService bankGatewayExecutor(BankGatewayProperties properties,
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+    if (virtualThreads) {
+      return Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("bank-gateway-", 1).factory());
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    return Executors.newFixedThreadPool(properties.getExecutorThreads(), runnable -> {
+      Thread thread = new Thread(runnable, "bank-gateway-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Stores authorized payments. Storing can block on the journal flush or on a follower's
+   * acknowledgement, so it runs here rather than on {@link #bankGatewayExecutor}, whose threads
+   * complete bank responses. Sized by {@code payments.storage.executor-threads}, or a virtual
+   * thread per task like the bank executor.
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService paymentStorageExecutor(
+      @Value("${payments.storage.executor-threads:64}") int threads,
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+    if (virtualThreads) {
+      return Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("payment-storage-", 1).factory());
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    return Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "payment-storage-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * The JDK client's keep-alive pool is shared by every client in the JVM and is only sized by
+   * the {@code jdk.httpclient.connectionPoolSize} and {@code jdk.httpclient.keepalive.timeout}
+   * system properties, so those are set as JVM flags at launch rather than here.
+   */
+  @Bean
+  public HttpClient bankHttpClient(BankGatewayProperties properties,
+      @Qualifier("bankGatewayExecutor") ExecutorService bankGatewayExecutor) {
+    return HttpClient.newBuilder()
+        .version(properties.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+        .connectTimeout(properties.getConnectTimeout())
+        .executor(bankGatewayExecutor)
         .build();
   }
 }
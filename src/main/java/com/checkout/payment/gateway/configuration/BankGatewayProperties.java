@@ -0,0 +1,304 @@
+package com.checkout.payment.gateway.configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Connection settings for the acquiring bank, bound from {@code bank.gateway.*}.
+ * <p>
+ * Several acquirers can be listed under {@code bank.gateway.acquirers[n]}; without any, payments
+ * go to the single acquirer at {@code bank.gateway.base-url}.
+ */
+@ConfigurationProperties(prefix = "bank.gateway")
+public class BankGatewayProperties {
+
+  private String baseUrl = "http://localhost:8080";
+  private Duration connectTimeout = Duration.ofSeconds(2);
+  private Duration requestTimeout = Duration.ofSeconds(10);
+  private int executorThreads = 16;
+  private int maxInFlight = 256;
+  private boolean http2 = false;
+  private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+  private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+  private final Batching batching = new Batching();
+  private final Routing routing = new Routing();
+  private final Hedging hedging = new Hedging();
+  private List<Acquirer> acquirers = new ArrayList<>();
+
+  public String getBaseUrl() {
+    return baseUrl;
+  }
+
+  public void setBaseUrl(String baseUrl) {
+    this.baseUrl = baseUrl;
+  }
+
+  public Duration getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public void setConnectTimeout(Duration connectTimeout) {
+    this.connectTimeout = connectTimeout;
+  }
+
+  public Duration getRequestTimeout() {
+    return requestTimeout;
+  }
+
+  public void setRequestTimeout(Duration requestTimeout) {
+    this.requestTimeout = requestTimeout;
+  }
+
+  public int getExecutorThreads() {
+    return executorThreads;
+  }
+
+  public void setExecutorThreads(int executorThreads) {
+    this.executorThreads = executorThreads;
+  }
+
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  public void setMaxInFlight(int maxInFlight) {
+    this.maxInFlight = maxInFlight;
+  }
+
+  public boolean isHttp2() {
+    return http2;
+  }
+
+  public void setHttp2(boolean http2) {
+    this.http2 = http2;
+  }
+
+  public ConcurrencyLimit getConcurrencyLimit() {
+    return concurrencyLimit;
+  }
+
+  public CircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  public Batching getBatching() {
+    return batching;
+  }
+
+  public Routing getRouting() {
+    return routing;
+  }
+
+  public Hedging getHedging() {
+    return hedging;
+  }
+
+  public List<Acquirer> getAcquirers() {
+    return acquirers;
+  }
+
+  public void setAcquirers(List<Acquirer> acquirers) {
+    this.acquirers = acquirers;
+  }
+
+  /**
+   * Bounds of the adaptive concurrency limit; {@code max-in-flight} is the upper bound. The limit
+   * starts at {@code initial}, or at {@code max-in-flight} when that is not set, and the latency
+   * gradient shrinks it from there.
+   */
+  public static class ConcurrencyLimit {
+
+    private int initial = 0;
+    private int min = 4;
+
+    public int getInitial() {
+      return initial;
+    }
+
+    public void setInitial(int initial) {
+      this.initial = initial;
+    }
+
+    public int getMin() {
+      return min;
+    }
+
+    public void setMin(int min) {
+      this.min = min;
+    }
+  }
+
+  public static class CircuitBreaker {
+
+    private int windowSize = 50;
+    private int minimumCalls = 20;
+    private double failureRateThreshold = 0.5;
+    private Duration openDuration = Duration.ofSeconds(5);
+
+    public int getWindowSize() {
+      return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+      this.windowSize = windowSize;
+    }
+
+    public int getMinimumCalls() {
+      return minimumCalls;
+    }
+
+    public void setMinimumCalls(int minimumCalls) {
+      this.minimumCalls = minimumCalls;
+    }
+
+    public double getFailureRateThreshold() {
+      return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(double failureRateThreshold) {
+      this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public Duration getOpenDuration() {
+      return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+      this.openDuration = openDuration;
+    }
+  }
+
+  /**
+   * Micro-batching of authorizations into single calls to the acquirer's batch endpoint.
+   */
+  public static class Batching {
+
+    private boolean enabled = false;
+    private int maxSize = 32;
+    private Duration maxDelay = Duration.ofNanos(500_000);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+      return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+      this.maxSize = maxSize;
+    }
+
+    public Duration getMaxDelay() {
+      return maxDelay;
+    }
+
+    public void setMaxDelay(Duration maxDelay) {
+      this.maxDelay = maxDelay;
+    }
+  }
+
+  /**
+   * Acquirer selection across {@link #getAcquirers() acquirers}.
+   */
+  public static class Routing {
+
+    private double ewmaAlpha = 0.2;
+
+    public double getEwmaAlpha() {
+      return ewmaAlpha;
+    }
+
+    public void setEwmaAlpha(double ewmaAlpha) {
+      this.ewmaAlpha = ewmaAlpha;
+    }
+  }
+
+  /**
+   * Hedged authorizations: when an acquirer has not answered within its recent latency at
+   * {@code percentile} (but at least {@code minDelay}), a second attempt is sent to the same
+   * acquirer. Never to another one: the idempotency reference only deduplicates within one
+   * acquirer, so two acquirers could both authorize the payment.
+   */
+  public static class Hedging {
+
+    private boolean enabled = false;
+    private double percentile = 0.95;
+    private Duration minDelay = Duration.ofMillis(5);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public double getPercentile() {
+      return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+      this.percentile = percentile;
+    }
+
+    public Duration getMinDelay() {
+      return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+      this.minDelay = minDelay;
+    }
+  }
+
+  /**
+   * One acquiring bank and the payments it accepts. Empty {@code currencies} or
+   * {@code binRanges} accept any; BIN ranges are inclusive pairs of six-digit BINs such as
+   * {@code 400000-499999}.
+   */
+  public static class Acquirer {
+
+    private String name;
+    private String baseUrl;
+    private List<String> currencies = new ArrayList<>();
+    private List<String> binRanges = new ArrayList<>();
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public String getBaseUrl() {
+      return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+      this.baseUrl = baseUrl;
+    }
+
+    public List<String> getCurrencies() {
+      return currencies;
+    }
+
+    public void setCurrencies(List<String> currencies) {
+      this.currencies = currencies;
+    }
+
+    public List<String> getBinRanges() {
+      return binRanges;
+    }
+
+    public void setBinRanges(List<String> binRanges) {
+      this.binRanges = binRanges;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.client.AcquirerRouter;
+import com.checkout.payment.gateway.client.AdaptiveConcurrencyLimiter;
+import com.checkout.payment.gateway.client.BankGatewayClient;
+import com.checkout.payment.gateway.client.CircuitBreaker;
+import com.checkout.payment.gateway.cluster.PaymentCluster;
+import com.checkout.payment.gateway.controller.PaymentResponseCache;
+import com.checkout.payment.gateway.replication.ReplicationFollower;
+import com.checkout.payment.gateway.replication.ReplicationLog;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.service.IdempotencyCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Optional;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exposes the state that components already track (store size, eviction counts, acquirer
+ * concurrency, latency, circuit breaker state and replication progress) as gauges and counters
+ * read at scrape time. Acquirer meters carry an {@code acquirer} tag.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+  @Bean
+  public MeterBinder paymentStateMetrics(PaymentsRepository repository,
+      IdempotencyCache idempotencyCache, PaymentResponseCache responseCache,
+      AcquirerRouter acquirerRouter, PaymentCluster cluster,
+      Optional<ReplicationLog> replicationLog, Optional<ReplicationFollower> replicationFollower) {
+    return registry -> {
+      Gauge.builder("payments.stored", repository, PaymentsRepository::size)
+          .description("Payments held in the repository")
+          .register(registry);
+      FunctionCounter.builder("payments.evicted", repository, PaymentsRepository::getEvictedCount)
+          .description("Payments evicted because the repository was full")
+          .register(registry);
+      FunctionCounter.builder("payments.expired", repository, PaymentsRepository::getExpiredCount)
+          .description("Payments dropped after their time-to-live")
+          .register(registry);
+      Gauge.builder("payments.idempotency.keys", idempotencyCache, IdempotencyCache::size)
+          .description("Idempotency keys currently remembered")
+          .register(registry);
+      Gauge.builder("payments.response.cache.size", responseCache, PaymentResponseCache::size)
+          .description("Serialized payment responses currently cached")
+          .register(registry);
+      if (cluster.isEnabled()) {
+        Gauge.builder("payments.cluster.members", cluster, c -> c.getMembers().size())
+            .description("Gateway nodes this node knows of, itself included")
+            .register(registry);
+        Gauge.builder("payments.cluster.partitions.owned", cluster,
+                PaymentCluster::getOwnedPartitionCount)
+            .description("Payment partitions owned by this node")
+            .register(registry);
+      }
+      replicationLog.ifPresent(log -> bindReplicationLog(registry, log));
+      replicationFollower.ifPresent(follower ->
+          Gauge.builder("payments.replication.lag", follower, f -> f.getLagMillis() / 1e3)
+              .description("How far this follower's store trails the leader")
+              .baseUnit("seconds")
+              .register(registry));
+
+      for (BankGatewayClient acquirer : acquirerRouter.getAcquirers()) {
+        bindAcquirer(registry, acquirer);
+      }
+    };
+  }
+
+  private static void bindReplicationLog(MeterRegistry registry, ReplicationLog log) {
+    Gauge.builder("payments.replication.followers", log, ReplicationLog::getFollowers)
+        .description("Followers currently connected to this leader")
+        .register(registry);
+    Gauge.builder("payments.replication.unacknowledged", log, ReplicationLog::getUnacknowledged)
+        .description("Stored payments no follower has acknowledged yet")
+        .register(registry);
+    FunctionCounter.builder("payments.replication.ack.timeouts", log,
+            ReplicationLog::getAckTimeouts)
+        .description("Semi-synchronous writes that stopped waiting for a follower")
+        .register(registry);
+  }
+
+  private static void bindAcquirer(MeterRegistry registry, BankGatewayClient acquirer) {
+    String name = acquirer.getName();
+    AdaptiveConcurrencyLimiter limiter = acquirer.getConcurrencyLimiter();
+    Gauge.builder("bank.gateway.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+        .description("Acquirer calls currently in flight")
+        .tag("acquirer", name)
+        .register(registry);
+    Gauge.builder("bank.gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+        .description("Current adaptive limit on concurrent acquirer calls")
+        .tag("acquirer", name)
+        .register(registry);
+    Gauge.builder("bank.gateway.latency.ewma", acquirer, a -> a.getLatencyEwmaNanos() / 1e9)
+        .description("Moving average of acquirer call latency used for routing")
+        .tag("acquirer", name)
+        .baseUnit("seconds")
+        .register(registry);
+
+    CircuitBreaker breaker = acquirer.getCircuitBreaker();
+    Gauge.builder("bank.gateway.circuit.state", breaker, b -> b.getState().ordinal())
+        .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+        .tag("acquirer", name)
+        .register(registry);
+    Gauge.builder("bank.gateway.circuit.failure.rate", breaker, CircuitBreaker::getFailureRate)
+        .description("Failure rate over the circuit breaker's sliding window")
+        .tag("acquirer", name)
+        .register(registry);
+  }
+}
@@ -0,0 +1,23 @@
+package com.checkout.payment.gateway.configuration;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Settings for the {@code reactive} profile, which runs the gateway on WebFlux.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfiguration {
+
+  /**
+   * Tomcat is on the classpath for the servlet mode and would otherwise be picked as the reactive
+   * server too.
+   */
+  @Bean
+  public NettyReactiveWebServerFactory reactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+}
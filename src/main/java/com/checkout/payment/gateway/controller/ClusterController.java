@@ -0,0 +1,80 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.cluster.ClusterClient;
+import com.checkout.payment.gateway.cluster.ClusterNode;
+import com.checkout.payment.gateway.cluster.PaymentCluster;
+import com.checkout.payment.gateway.repository.PaymentRecord;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Internal endpoints that gateway nodes call on each other, served with
+ * {@code payments.cluster.enabled=true} in both the servlet and the reactive mode. They read only
+ * the local store. Calls without the cluster secret in {@value ClusterClient#SECRET_HEADER} are
+ * refused with 403, so clients on the public port can neither read payments in bulk nor register
+ * nodes.
+ */
+@RestController
+@ConditionalOnProperty(name = "payments.cluster.enabled", havingValue = "true")
+public class ClusterController {
+
+  private final PaymentCluster cluster;
+  private final PaymentsRepository paymentsRepository;
+
+  public ClusterController(PaymentCluster cluster, PaymentsRepository paymentsRepository) {
+    this.cluster = cluster;
+    this.paymentsRepository = paymentsRepository;
+  }
+
+  @GetMapping(value = ClusterClient.PAYMENT_ENDPOINT + "{id}",
+      produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  public ResponseEntity<byte[]> getPayment(@PathVariable UUID id,
+      @RequestHeader(name = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (!cluster.isAuthorized(secret)) {
+      return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+    }
+    Optional<PaymentRecord> payment = paymentsRepository.getRecord(id);
+    if (payment.isEmpty()) {
+      return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+    byte[] record = new byte[payment.get().length()];
+    payment.get().copyTo(record, 0);
+    return new ResponseEntity<>(record, HttpStatus.OK);
+  }
+
+  @GetMapping(value = ClusterClient.PARTITIONS_ENDPOINT,
+      produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  public ResponseEntity<Resource> getPartitions(@RequestParam int[] ids,
+      @RequestHeader(name = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (!cluster.isAuthorized(secret)) {
+      return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+    }
+    return new ResponseEntity<>(new InputStreamResource(cluster.exportPartitions(ids)),
+        HttpStatus.OK);
+  }
+
+  @PostMapping(value = ClusterClient.MEMBERS_ENDPOINT, consumes = MediaType.TEXT_PLAIN_VALUE,
+      produces = MediaType.TEXT_PLAIN_VALUE)
+  public ResponseEntity<String> join(@RequestBody String node,
+      @RequestHeader(name = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (!cluster.isAuthorized(secret)) {
+      return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+    }
+    return new ResponseEntity<>(
+        ClusterClient.formatMembers(cluster.addMember(ClusterNode.parse(node))), HttpStatus.OK);
+  }
+}
@@ -1,32 +1,93 @@
 package com.checkout.payment.gateway.controller;
 
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.BankGatewayUnavailableException;
 import com.checkout.payment.gateway.exception.InvalidPaymentException;
+import com.checkout.payment.gateway.exception.InvalidQueryException;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.BatchPaymentResult;
 import com.checkout.payment.gateway.model.GetPaymentResponse;
 import com.checkout.payment.gateway.model.PaymentDetails;
+import com.checkout.payment.gateway.model.PaymentPage;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
 import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentQuery;
+import com.checkout.payment.gateway.repository.PaymentRecord;
+import com.checkout.payment.gateway.service.PaymentBatchService;
+import com.checkout.payment.gateway.service.PaymentExportService;
 import com.checkout.payment.gateway.service.PaymentGatewayService;
 import com.checkout.payment.gateway.service.PaymentValidationService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+/**
+ * Servlet endpoints, served unless the {@code reactive} profile is active; see
+ * {@link ReactivePaymentGatewayController}.
+ */
 @RestController
+@Profile("!reactive")
 public class PaymentGatewayController {
 
+  static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
   private final PaymentGatewayService paymentGatewayService;
   private final PaymentValidationService validationService;
+  private final PaymentBatchService paymentBatchService;
+  private final PaymentExportService paymentExportService;
+  private final PaymentResponseCache responseCache;
+  private final ObjectMapper objectMapper;
+  private final PaymentMetrics metrics;
+  private final int maxBatchSize;
+  private final int maxPageSize;
 
   public PaymentGatewayController(PaymentGatewayService paymentGatewayService, 
-                                 PaymentValidationService validationService) {
+                                 PaymentValidationService validationService,
+                                 PaymentBatchService paymentBatchService,
+                                 PaymentExportService paymentExportService,
+                                 PaymentResponseCache responseCache,
+                                 ObjectMapper objectMapper,
+                                 PaymentMetrics metrics,
+                                 @Value("${payments.batch.max-size:10000}") int maxBatchSize,
+                                 @Value("${payments.query.max-limit:1000}") int maxPageSize) {
     this.paymentGatewayService = paymentGatewayService;
     this.validationService = validationService;
+    this.paymentBatchService = paymentBatchService;
+    this.paymentExportService = paymentExportService;
+    this.responseCache = responseCache;
+    this.objectMapper = objectMapper;
+    this.metrics = metrics;
+    this.maxBatchSize = maxBatchSize;
+    this.maxPageSize = maxPageSize;
   }
 
   @GetMapping("/")
@@ -35,38 +96,220 @@ public class PaymentGatewayController {
     return new ResponseEntity<>(response, HttpStatus.OK);
   }
 
+  /**
+   * Validation runs on the request thread so malformed requests are rejected straight away; the
+   * bank call, persistence and response mapping complete asynchronously. Retries that repeat the
+   * {@value #IDEMPOTENCY_KEY_HEADER} header get the original payment back. The GET response for
+   * the new payment is serialized into the {@link PaymentResponseCache} ahead of the first poll.
+   */
   @PostMapping("/payment")
-  public ResponseEntity<PostPaymentResponse> processPayment(@RequestBody Map<String, Object> paymentMap) {
-    PostPaymentRequest payment = convertMapToPostPaymentRequest(paymentMap);
-    validationService.validatePaymentRequest(payment);
-    PaymentDetails paymentDetails = paymentGatewayService.processPayment(payment);
-    PostPaymentResponse response = convertToPostPaymentResponse(paymentDetails);
-    return new ResponseEntity<>(response, HttpStatus.OK);
+  public CompletableFuture<ResponseEntity<PostPaymentResponse>> processPayment(
+      @RequestBody PostPaymentRequest payment,
+      @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    validate(payment);
+    return paymentGatewayService.processPaymentAsync(payment, idempotencyKey)
+        .thenApply(details -> {
+          responseCache.add(details);
+          return convertToPostPaymentResponse(details);
+        })
+        .thenApply(response -> new ResponseEntity<>(response, HttpStatus.OK));
   }
 
-  @GetMapping("/payment/{id}")
-  public ResponseEntity<GetPaymentResponse> getPostPaymentEventById(@PathVariable UUID id) {
-    PaymentDetails paymentDetails = paymentGatewayService.getPaymentById(id);
-    GetPaymentResponse response = convertToGetPaymentResponse(paymentDetails);
-    return new ResponseEntity<>(response, HttpStatus.OK);
+  /**
+   * Accepts a JSON array or newline-delimited JSON objects, each shaped like a POST /payment body,
+   * and streams back one NDJSON result per item in submission order. Invalid items are reported
+   * in their result line and do not fail the rest of the batch.
+   * <p>
+   * Each item is started as soon as it is parsed. A body that is malformed before its first item
+   * is rejected with 400; once items have been started a later format error ends the batch there
+   * and is reported as a final result line after theirs.
+   */
+  @PostMapping(value = "/payments/batch",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> processPaymentBatch(InputStream body) {
+    PaymentBatchService.Batch batch = paymentBatchService.open();
+    String truncation = readPaymentBatch(body, batch);
+    List<CompletableFuture<PaymentDetails>> results = batch.results();
+
+    StreamingResponseBody stream = outputStream -> {
+      for (int i = 0; i < results.size(); i++) {
+        outputStream.write(objectMapper.writeValueAsBytes(convertToBatchResult(i, results.get(i))));
+        outputStream.write('\n');
+        outputStream.flush();
+      }
+      if (truncation != null) {
+        outputStream.write(objectMapper.writeValueAsBytes(
+            new BatchPaymentResult(results.size(), null, truncation)));
+        outputStream.write('\n');
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(stream);
   }
 
-  private PostPaymentRequest convertMapToPostPaymentRequest(Map<String, Object> paymentMap) {
+  /**
+   * Serves the payment from its cached JSON body, with an ETag; a matching {@code If-None-Match}
+   * gets a 304 without a body.
+   */
+  @GetMapping(value = "/payment/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public CompletableFuture<ResponseEntity<byte[]>> getPostPaymentEventById(@PathVariable UUID id,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return paymentGatewayService.getPaymentById(id)
+        .thenApply(payment -> responseCache.get(payment).toResponseEntity(ifNoneMatch));
+  }
+
+  /**
+   * Lists stored payments oldest first, optionally filtered by status, currency and an ISO-8601
+   * time window ({@code from} inclusive, {@code to} exclusive). Pass the returned
+   * {@code nextCursor} back as {@code cursor} to fetch the following page.
+   */
+  @GetMapping("/payments")
+  public ResponseEntity<PaymentPage> findPayments(
+      @RequestParam(required = false) String status,
+      @RequestParam(required = false) String currency,
+      @RequestParam(required = false) String from,
+      @RequestParam(required = false) String to,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "100") int limit) {
+    if (limit < 1 || limit > maxPageSize) {
+      throw new InvalidQueryException("Limit must be between 1 and " + maxPageSize);
+    }
+    PaymentQuery query = buildQuery(status, currency, from, to, cursor, limit + 1);
+    List<PaymentRecord> payments = paymentGatewayService.findPayments(query);
+    return new ResponseEntity<>(convertToPaymentPage(payments, limit), HttpStatus.OK);
+  }
+
+  /**
+   * Streams every stored payment, oldest first, as NDJSON (the default) or CSV with a header row.
+   * The export is written on the request thread rather than asynchronously, so exporting a large
+   * store is not cut off by {@code spring.mvc.async.request-timeout}, which bounds the
+   * asynchronous endpoints.
+   */
+  @GetMapping("/payments/export")
+  public void exportPayments(@RequestParam(defaultValue = "ndjson") String format,
+      HttpServletResponse response) throws IOException {
+    PaymentExportService.Format exportFormat = parseExportFormat(format);
+    response.setStatus(HttpStatus.OK.value());
+    response.setContentType(exportContentType(exportFormat).toString());
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, exportContentDisposition(exportFormat));
+    paymentExportService.export(exportFormat, response.getOutputStream());
+  }
+
+  static PaymentExportService.Format parseExportFormat(String format) {
+    if ("csv".equalsIgnoreCase(format)) {
+      return PaymentExportService.Format.CSV;
+    } else if ("ndjson".equalsIgnoreCase(format)) {
+      return PaymentExportService.Format.NDJSON;
+    }
+    throw new InvalidQueryException("Unsupported export format " + format);
+  }
+
+  static MediaType exportContentType(PaymentExportService.Format format) {
+    return format == PaymentExportService.Format.CSV
+        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+        : MediaType.APPLICATION_NDJSON;
+  }
+
+  static String exportContentDisposition(PaymentExportService.Format format) {
+    return "attachment; filename=\"payments." + format.name().toLowerCase() + "\"";
+  }
+
+  static PaymentQuery buildQuery(String status, String currency, String from, String to,
+      String cursor, int limit) {
+    PaymentStatus paymentStatus = PaymentStatus.fromValue(status);
+    if (status != null && paymentStatus == null) {
+      throw new InvalidQueryException("Unknown status " + status);
+    }
+    Currency paymentCurrency = Currency.fromValue(currency);
+    if (currency != null && paymentCurrency == null) {
+      throw new InvalidQueryException("Unknown currency " + currency);
+    }
+    try {
+      return new PaymentQuery(paymentStatus, paymentCurrency,
+          from == null ? null : Instant.parse(from), to == null ? null : Instant.parse(to),
+          cursor, limit);
+    } catch (DateTimeException | IllegalArgumentException e) {
+      throw new InvalidQueryException("Invalid query: " + e.getMessage());
+    }
+  }
+
+  private void validate(PostPaymentRequest payment) {
+    long start = System.nanoTime();
     try {
-      PostPaymentRequest request = new PostPaymentRequest();
-      request.setCardNumber((String) paymentMap.get("cardNumber"));
-      request.setExpiryMonth((Integer) paymentMap.get("expiryMonth"));
-      request.setExpiryYear((Integer) paymentMap.get("expiryYear"));
-      request.setCurrency((String) paymentMap.get("currency"));
-      request.setAmount((Integer) paymentMap.get("amount"));
-      request.setCvv((Integer) paymentMap.get("cvv"));
-      return request;
-    } catch (Exception e) {
-      throw new InvalidPaymentException("Invalid payment request format: " + e.getMessage());
+      validationService.validatePaymentRequest(payment);
+    } finally {
+      metrics.recordStage(PaymentMetrics.Stage.VALIDATION, System.nanoTime() - start);
     }
   }
 
-  private PostPaymentResponse convertToPostPaymentResponse(PaymentDetails paymentDetails) {
+  /**
+   * Adds each item to {@code batch} as soon as it is parsed and returns the error that ended the
+   * batch early, or null if the whole body was read.
+   */
+  private String readPaymentBatch(InputStream body, PaymentBatchService.Batch batch) {
+    try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+      JsonToken token = parser.nextToken();
+      if (token == JsonToken.START_ARRAY) {
+        token = parser.nextToken();
+      }
+      while (token != null && token != JsonToken.END_ARRAY) {
+        if (token != JsonToken.START_OBJECT) {
+          throw new InvalidPaymentException("Batch items must be JSON objects");
+        }
+        if (batch.size() == maxBatchSize) {
+          throw new InvalidPaymentException("Batch exceeds " + maxBatchSize + " payments");
+        }
+        batch.add(preparePayment(parser));
+        token = parser.nextToken();
+      }
+      return null;
+    } catch (IOException | InvalidPaymentException e) {
+      if (batch.size() > 0) {
+        // Started items cannot be called back, so they keep their results
+        return "Rejected: Invalid batch request";
+      }
+      if (e instanceof InvalidPaymentException invalid) {
+        throw invalid;
+      }
+      throw new InvalidPaymentException("Invalid batch request format: " + e.getMessage());
+    }
+  }
+
+  private Supplier<CompletableFuture<PaymentDetails>> preparePayment(JsonParser parser)
+      throws IOException {
+    try {
+      PostPaymentRequest payment = parser.readValueAs(PostPaymentRequest.class);
+      validate(payment);
+      return () -> paymentGatewayService.processPaymentAsync(payment);
+    } catch (MismatchedInputException e) {
+      // The deserializer consumes the whole item before rejecting it, so the batch can continue
+      InvalidPaymentException rejection =
+          new InvalidPaymentException("Invalid payment request format: " + e.getOriginalMessage());
+      return () -> CompletableFuture.failedFuture(rejection);
+    } catch (InvalidPaymentException e) {
+      return () -> CompletableFuture.failedFuture(e);
+    }
+  }
+
+  private BatchPaymentResult convertToBatchResult(int index,
+      CompletableFuture<PaymentDetails> result) {
+    try {
+      return new BatchPaymentResult(index, convertToPostPaymentResponse(result.join()), null);
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      String error;
+      if (cause instanceof InvalidPaymentException) {
+        error = "Rejected: Invalid payment request";
+      } else if (cause instanceof BankGatewayUnavailableException) {
+        error = "Payment processing temporarily unavailable";
+      } else {
+        error = "Error processing payment";
+      }
+      return new BatchPaymentResult(index, null, error);
+    }
+  }
+
+  static PostPaymentResponse convertToPostPaymentResponse(PaymentDetails paymentDetails) {
     PostPaymentResponse response = new PostPaymentResponse();
     response.setId(paymentDetails.getId());
     response.setStatus(paymentDetails.getStatus());
@@ -78,15 +321,43 @@ public class PaymentGatewayController {
     return response;
   }
 
-  private GetPaymentResponse convertToGetPaymentResponse(PaymentDetails paymentDetails) {
+  /**
+   * Builds a page of at most {@code limit} payments from a lookup that fetched one extra, whose
+   * presence means there is a next page.
+   */
+  static PaymentPage convertToPaymentPage(List<PaymentRecord> payments, int limit) {
+    int pageSize = Math.min(limit, payments.size());
+    List<GetPaymentResponse> page = new ArrayList<>(pageSize);
+    for (int i = 0; i < pageSize; i++) {
+      page.add(convertToGetPaymentResponse(payments.get(i)));
+    }
+    String nextCursor = payments.size() > limit
+        ? PaymentQuery.cursorOf(payments.get(limit - 1))
+        : null;
+    return new PaymentPage(page, nextCursor);
+  }
+
+  static GetPaymentResponse convertToGetPaymentResponse(PaymentDetails payment) {
+    GetPaymentResponse response = new GetPaymentResponse();
+    response.setId(payment.getId());
+    response.setStatus(payment.getStatus());
+    response.setCardNumberLastFour(payment.getCardNumberLastFour());
+    response.setExpiryMonth(payment.getExpiryMonth());
+    response.setExpiryYear(payment.getExpiryYear());
+    response.setCurrency(payment.getCurrency());
+    response.setAmount(payment.getAmount());
+    return response;
+  }
+
+  static GetPaymentResponse convertToGetPaymentResponse(PaymentRecord payment) {
     GetPaymentResponse response = new GetPaymentResponse();
-    response.setId(paymentDetails.getId());
-    response.setStatus(paymentDetails.getStatus());
-    response.setCardNumberLastFour(paymentDetails.getCardNumberLastFour());
-    response.setExpiryMonth(paymentDetails.getExpiryMonth());
-    response.setExpiryYear(paymentDetails.getExpiryYear());
-    response.setCurrency(paymentDetails.getCurrency());
-    response.setAmount(paymentDetails.getAmount());
+    response.setId(payment.getId());
+    response.setStatus(payment.getStatus());
+    response.setCardNumberLastFour(payment.getCardNumberLastFour());
+    response.setExpiryMonth(payment.getExpiryMonth());
+    response.setExpiryYear(payment.getExpiryYear());
+    response.setCurrency(payment.getCurrency());
+    response.setAmount(payment.getAmount());
     return response;
   }
 }
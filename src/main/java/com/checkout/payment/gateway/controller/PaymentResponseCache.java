@@ -0,0 +1,162 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.GetPaymentResponse;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import com.checkout.payment.gateway.repository.PaymentRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32C;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serialized GET /payment/{id} bodies, so that repeated polls for a payment skip response mapping
+ * and JSON serialization.
+ * <p>
+ * Bodies are added when a payment is created and on the first read of any other payment. Stored
+ * payments never change, so an entry never goes stale; callers still look the payment up in the
+ * repository first, so nothing is served after the repository has evicted or expired it. The
+ * cache holds at most {@code payments.response-cache.max-entries} bodies and evicts the oldest
+ * first, which suits polling that follows shortly after each payment. Zero disables caching, but
+ * responses still carry an ETag.
+ */
+@Component
+public class PaymentResponseCache {
+
+  private final ConcurrentMap<UUID, CachedResponse> entries = new ConcurrentHashMap<>();
+  private final Queue<UUID> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final ObjectMapper objectMapper;
+  private final PaymentMetrics metrics;
+  private final int maxEntries;
+
+  public PaymentResponseCache(ObjectMapper objectMapper, PaymentMetrics metrics,
+      @Value("${payments.response-cache.max-entries:100000}") int maxEntries) {
+    this.objectMapper = objectMapper;
+    this.metrics = metrics;
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Returns the serialized response for a stored payment, serializing and caching it on a miss.
+   */
+  public CachedResponse get(PaymentRecord payment) {
+    UUID id = payment.getId();
+    CachedResponse cached = entries.get(id);
+    metrics.recordResponseCache(cached != null);
+    if (cached != null) {
+      return cached;
+    }
+    cached = serialize(PaymentGatewayController.convertToGetPaymentResponse(payment));
+    add(id, cached);
+    return cached;
+  }
+
+  /**
+   * Caches the response for a payment that has just been stored. A payment that cannot be
+   * serialized is left to be serialized on read instead of failing its creation.
+   */
+  public void add(PaymentDetails payment) {
+    if (maxEntries <= 0 || entries.containsKey(payment.getId())) {
+      return;
+    }
+    try {
+      add(payment.getId(),
+          serialize(PaymentGatewayController.convertToGetPaymentResponse(payment)));
+    } catch (IllegalStateException e) {
+      // Serialized again, and reported, on the first read
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private void add(UUID id, CachedResponse response) {
+    if (maxEntries <= 0 || entries.putIfAbsent(id, response) != null) {
+      return;
+    }
+    insertionOrder.add(id);
+    while (entries.size() > maxEntries) {
+      UUID oldest = insertionOrder.poll();
+      if (oldest == null) {
+        break;
+      }
+      entries.remove(oldest);
+    }
+  }
+
+  private CachedResponse serialize(GetPaymentResponse response) {
+    try {
+      return new CachedResponse(objectMapper.writeValueAsBytes(response));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize payment " + response.getId(), e);
+    }
+  }
+
+  /**
+   * A serialized response body and its strong ETag, derived from the body so that every instance
+   * of the gateway computes the same one.
+   */
+  public static final class CachedResponse {
+
+    private final byte[] body;
+    private final String etag;
+
+    CachedResponse(byte[] body) {
+      this.body = body;
+      CRC32C checksum = new CRC32C();
+      checksum.update(body);
+      this.etag = "\"" + Long.toHexString(checksum.getValue()) + "\"";
+    }
+
+    public byte[] getBody() {
+      return body;
+    }
+
+    public String getEtag() {
+      return etag;
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header lists this response's ETag, compared weakly as
+     * RFC 9110 requires for that header.
+     */
+    public boolean matches(String ifNoneMatch) {
+      if (ifNoneMatch == null) {
+        return false;
+      }
+      for (String tag : ifNoneMatch.split(",")) {
+        tag = tag.trim();
+        if (tag.startsWith("W/")) {
+          tag = tag.substring(2);
+        }
+        if (tag.equals("*") || tag.equals(etag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Builds the response to a GET, or a body-less 304 when the client already holds it.
+     */
+    public ResponseEntity<byte[]> toResponseEntity(String ifNoneMatch) {
+      if (matches(ifNoneMatch)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+      }
+      return ResponseEntity.ok()
+          .eTag(etag)
+          .contentType(MediaType.APPLICATION_JSON)
+          .body(body);
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.exception.InvalidQueryException;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.PaymentPage;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentQuery;
+import com.checkout.payment.gateway.service.PaymentExportService;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import com.checkout.payment.gateway.service.PaymentValidationService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux endpoints served from Netty when the {@code reactive} profile is active. Requests and
+ * responses match {@link PaymentGatewayController}; POST /payments/batch is only served in the
+ * servlet mode.
+ * <p>
+ * Nothing here blocks an event loop: validation and lookups are in-memory, the bank call is
+ * asynchronous, and the export writes on a {@link Schedulers#boundedElastic() bounded elastic}
+ * thread.
+ */
+@RestController
+@Profile("reactive")
+public class ReactivePaymentGatewayController {
+
+  private final PaymentGatewayService paymentGatewayService;
+  private final PaymentValidationService validationService;
+  private final PaymentExportService paymentExportService;
+  private final PaymentResponseCache responseCache;
+  private final PaymentMetrics metrics;
+  private final int maxPageSize;
+
+  public ReactivePaymentGatewayController(PaymentGatewayService paymentGatewayService,
+      PaymentValidationService validationService,
+      PaymentExportService paymentExportService,
+      PaymentResponseCache responseCache,
+      PaymentMetrics metrics,
+      @Value("${payments.query.max-limit:1000}") int maxPageSize) {
+    this.paymentGatewayService = paymentGatewayService;
+    this.validationService = validationService;
+    this.paymentExportService = paymentExportService;
+    this.responseCache = responseCache;
+    this.metrics = metrics;
+    this.maxPageSize = maxPageSize;
+  }
+
+  @GetMapping("/")
+  public ResponseEntity<Map<String, String>> ping() {
+    return new ResponseEntity<>(Map.of("message", "pong"), HttpStatus.OK);
+  }
+
+  @PostMapping("/payment")
+  public Mono<ResponseEntity<PostPaymentResponse>> processPayment(
+      @RequestBody PostPaymentRequest payment,
+      @RequestHeader(name = PaymentGatewayController.IDEMPOTENCY_KEY_HEADER, required = false)
+      String idempotencyKey) {
+    validate(payment);
+    return paymentGatewayService.processPaymentReactive(payment, idempotencyKey)
+        .doOnNext(responseCache::add)
+        .map(PaymentGatewayController::convertToPostPaymentResponse)
+        .map(response -> new ResponseEntity<>(response, HttpStatus.OK));
+  }
+
+  @GetMapping(value = "/payment/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<byte[]>> getPostPaymentEventById(@PathVariable UUID id,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return paymentGatewayService.getPaymentByIdReactive(id)
+        .map(payment -> responseCache.get(payment).toResponseEntity(ifNoneMatch));
+  }
+
+  @GetMapping("/payments")
+  public Mono<ResponseEntity<PaymentPage>> findPayments(
+      @RequestParam(required = false) String status,
+      @RequestParam(required = false) String currency,
+      @RequestParam(required = false) String from,
+      @RequestParam(required = false) String to,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "100") int limit) {
+    if (limit < 1 || limit > maxPageSize) {
+      throw new InvalidQueryException("Limit must be between 1 and " + maxPageSize);
+    }
+    PaymentQuery query =
+        PaymentGatewayController.buildQuery(status, currency, from, to, cursor, limit + 1);
+    return paymentGatewayService.findPaymentsReactive(query)
+        .collectList()
+        .map(payments -> PaymentGatewayController.convertToPaymentPage(payments, limit))
+        .map(page -> new ResponseEntity<>(page, HttpStatus.OK));
+  }
+
+  @GetMapping("/payments/export")
+  public ResponseEntity<Flux<DataBuffer>> exportPayments(
+      @RequestParam(defaultValue = "ndjson") String format) {
+    PaymentExportService.Format exportFormat = PaymentGatewayController.parseExportFormat(format);
+    Flux<DataBuffer> body = Flux.from(DataBufferUtils.outputStreamPublisher(outputStream -> {
+      try {
+        paymentExportService.export(exportFormat, outputStream);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, DefaultDataBufferFactory.sharedInstance, Schedulers.boundedElastic()::schedule));
+    return ResponseEntity.ok()
+        .contentType(PaymentGatewayController.exportContentType(exportFormat))
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            PaymentGatewayController.exportContentDisposition(exportFormat))
+        .body(body);
+  }
+
+  private void validate(PostPaymentRequest payment) {
+    long start = System.nanoTime();
+    try {
+      validationService.validatePaymentRequest(payment);
+    } finally {
+      metrics.recordStage(PaymentMetrics.Stage.VALIDATION, System.nanoTime() - start);
+    }
+  }
+}
@@ -15,6 +15,25 @@ public enum Currency {
     return value;
   }
 
+  /**
+   * Returns the currency with the given ISO code, or {@code null} if it is not supported.
+   */
+  public static Currency fromValue(String value) {
+    if (value == null) {
+      return null;
+    }
+    switch (value) {
+      case "USD":
+        return USD;
+      case "EUR":
+        return EUR;
+      case "GBP":
+        return GBP;
+      default:
+        return null;
+    }
+  }
+
   @Override
   public String toString() {
     return value;
@@ -17,4 +17,16 @@ public enum PaymentStatus {
   public String getName() {
     return this.name;
   }
+
+  /**
+   * Returns the status with the given name, ignoring case, or {@code null} if there is none.
+   */
+  public static PaymentStatus fromValue(String value) {
+    for (PaymentStatus status : values()) {
+      if (status.name.equalsIgnoreCase(value)) {
+        return status;
+      }
+    }
+    return null;
+  }
 }
@@ -1,7 +1,25 @@
 package com.checkout.payment.gateway.exception;
 
+/**
+ * Raised when the acquirer cannot be reached or answers with an error. The message says what went
+ * wrong, so no stack trace is captured.
+ */
 public class BankGatewayException extends RuntimeException {
+  private final int statusCode;
+
   public BankGatewayException(String message) {
-    super(message);
+    this(message, -1);
+  }
+
+  /**
+   * @param statusCode the acquirer's HTTP status, or -1 when no response was received
+   */
+  public BankGatewayException(String message, int statusCode) {
+    super(message, null, false, false);
+    this.statusCode = statusCode;
+  }
+
+  public int getStatusCode() {
+    return statusCode;
   }
-}
\ No newline at end of file
+}
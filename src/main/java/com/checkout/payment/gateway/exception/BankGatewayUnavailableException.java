@@ -0,0 +1,7 @@
+package com.checkout.payment.gateway.exception;
+
+public class BankGatewayUnavailableException extends BankGatewayException {
+  public BankGatewayUnavailableException(String message) {
+    super(message);
+  }
+}
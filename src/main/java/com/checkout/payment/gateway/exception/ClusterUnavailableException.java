@@ -0,0 +1,11 @@
+package com.checkout.payment.gateway.exception;
+
+/**
+ * Raised when a payment is held by another gateway node that cannot be reached. The message names
+ * the node, so no stack trace is captured.
+ */
+public class ClusterUnavailableException extends RuntimeException {
+  public ClusterUnavailableException(String message) {
+    super(message, null, false, false);
+  }
+}
@@ -1,36 +1,138 @@
 package com.checkout.payment.gateway.exception;
 
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.metrics.PaymentMetrics.ErrorReason;
 import com.checkout.payment.gateway.model.ErrorResponse;
+import java.util.EnumMap;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebInputException;
 
+/**
+ * Maps exceptions to error responses. Every error is counted by reason in
+ * {@code payments.errors}; log lines are rate limited and sampled per reason (see
+ * {@link LogRateLimiter}) and carry no stack trace, so a flood of bad requests costs neither CPU
+ * nor disk.
+ */
 @ControllerAdvice
 public class CommonExceptionHandler {
 
   private static final Logger LOG = LoggerFactory.getLogger(CommonExceptionHandler.class);
 
+  private final PaymentMetrics metrics;
+  private final Map<ErrorReason, LogRateLimiter> logLimiters = new EnumMap<>(ErrorReason.class);
+
+  public CommonExceptionHandler(PaymentMetrics metrics,
+      @Value("${payments.errors.log.max-per-second:10}") int maxLogsPerSecond,
+      @Value("${payments.errors.log.sample-rate:1000}") int logSampleRate) {
+    this.metrics = metrics;
+    for (ErrorReason reason : ErrorReason.values()) {
+      logLimiters.put(reason,
+          new LogRateLimiter(maxLogsPerSecond, logSampleRate, System::nanoTime));
+    }
+  }
+
   @ExceptionHandler(EventProcessingException.class)
   public ResponseEntity<ErrorResponse> handleEventProcessingException(EventProcessingException ex) {
-    LOG.error("EventProcessingException happened", ex);
+    logError(ErrorReason.NOT_FOUND, Level.WARN, ex);
     return new ResponseEntity<>(new ErrorResponse("Page not found"),
         HttpStatus.NOT_FOUND);
   }
 
   @ExceptionHandler(InvalidPaymentException.class)
   public ResponseEntity<ErrorResponse> handleInvalidPaymentException(InvalidPaymentException ex) {
-    LOG.error("InvalidPaymentException happened", ex);
+    logError(ErrorReason.INVALID_PAYMENT, Level.WARN, ex);
+    return new ResponseEntity<>(new ErrorResponse("Rejected: Invalid payment request"),
+        HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(InvalidQueryException.class)
+  public ResponseEntity<ErrorResponse> handleInvalidQueryException(InvalidQueryException ex) {
+    logError(ErrorReason.INVALID_QUERY, Level.WARN, ex);
+    return new ResponseEntity<>(new ErrorResponse("Rejected: Invalid query"),
+        HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(HttpMessageNotReadableException.class)
+  public ResponseEntity<ErrorResponse> handleHttpMessageNotReadableException(
+      HttpMessageNotReadableException ex) {
+    logError(ErrorReason.UNREADABLE_REQUEST, Level.WARN, ex);
+    return new ResponseEntity<>(new ErrorResponse("Rejected: Invalid payment request"),
+        HttpStatus.BAD_REQUEST);
+  }
+
+  /**
+   * The reactive counterpart of {@link HttpMessageNotReadableException}, raised by WebFlux for
+   * unreadable bodies and unconvertible parameters.
+   */
+  @ExceptionHandler(ServerWebInputException.class)
+  public ResponseEntity<ErrorResponse> handleServerWebInputException(
+      ServerWebInputException ex) {
+    logError(ErrorReason.UNREADABLE_REQUEST, Level.WARN, ex);
     return new ResponseEntity<>(new ErrorResponse("Rejected: Invalid payment request"),
         HttpStatus.BAD_REQUEST);
   }
 
+  @ExceptionHandler(BankGatewayUnavailableException.class)
+  public ResponseEntity<ErrorResponse> handleBankGatewayUnavailableException(
+      BankGatewayUnavailableException ex) {
+    logError(ErrorReason.BANK_UNAVAILABLE, Level.WARN, ex);
+    return new ResponseEntity<>(new ErrorResponse("Payment processing temporarily unavailable"),
+        HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
   @ExceptionHandler(BankGatewayException.class)
   public ResponseEntity<ErrorResponse> handleBankGatewayException(BankGatewayException ex) {
-    LOG.error("BankGatewayException happened", ex);
+    logError(ErrorReason.BANK_ERROR, Level.ERROR, ex);
     return new ResponseEntity<>(new ErrorResponse("Error processing payment"),
         HttpStatus.INTERNAL_SERVER_ERROR);
   }
+
+  @ExceptionHandler(ClusterUnavailableException.class)
+  public ResponseEntity<ErrorResponse> handleClusterUnavailableException(
+      ClusterUnavailableException ex) {
+    logError(ErrorReason.CLUSTER_UNAVAILABLE, Level.WARN, ex);
+    return new ResponseEntity<>(new ErrorResponse("Payment lookup temporarily unavailable"),
+        HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  @ExceptionHandler(ReadOnlyReplicaException.class)
+  public ResponseEntity<ErrorResponse> handleReadOnlyReplicaException(
+      ReadOnlyReplicaException ex) {
+    logError(ErrorReason.READ_ONLY, Level.WARN, ex);
+    return new ResponseEntity<>(new ErrorResponse("Payments are not accepted by this node"),
+        HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  @ExceptionHandler(IdempotencyKeyReusedException.class)
+  public ResponseEntity<ErrorResponse> handleIdempotencyKeyReusedException(
+      IdempotencyKeyReusedException ex) {
+    logError(ErrorReason.IDEMPOTENCY_CONFLICT, Level.WARN, ex);
+    return new ResponseEntity<>(
+        new ErrorResponse("Rejected: Idempotency key reused for a different payment"),
+        HttpStatus.UNPROCESSABLE_ENTITY);
+  }
+
+  private void logError(ErrorReason reason, Level level, Exception ex) {
+    metrics.recordError(reason);
+    LogRateLimiter limiter = logLimiters.get(reason);
+    if (!limiter.tryAcquire() || !LOG.isEnabledForLevel(level)) {
+      return;
+    }
+    long suppressed = limiter.drainSuppressed();
+    if (suppressed > 0) {
+      LOG.atLevel(level).log("{} happened: {} ({} similar suppressed)",
+          ex.getClass().getSimpleName(), ex.getMessage(), suppressed);
+    } else {
+      LOG.atLevel(level).log("{} happened: {}", ex.getClass().getSimpleName(), ex.getMessage());
+    }
+  }
 }
@@ -1,7 +1,11 @@
 package com.checkout.payment.gateway.exception;
 
+/**
+ * Raised when a requested payment does not exist. Thrown for every unknown ID, so it carries no
+ * stack trace and may be shared.
+ */
 public class EventProcessingException extends RuntimeException{
   public EventProcessingException(String message) {
-    super(message);
+    super(message, null, false, false);
   }
 }
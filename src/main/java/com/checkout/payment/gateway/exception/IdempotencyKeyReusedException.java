@@ -0,0 +1,11 @@
+package com.checkout.payment.gateway.exception;
+
+/**
+ * Raised when an idempotency key that is still remembered arrives with a different payment than
+ * the one it was first used for. A client error, so no stack trace is captured.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+  public IdempotencyKeyReusedException(String message) {
+    super(message, null, false, false);
+  }
+}
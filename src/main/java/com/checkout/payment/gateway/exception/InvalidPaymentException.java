@@ -1,7 +1,28 @@
 package com.checkout.payment.gateway.exception;
 
+import java.util.List;
+
+/**
+ * Rejects a payment request. Rejections are routine and can arrive in floods, so no stack trace
+ * is captured.
+ */
 public class InvalidPaymentException extends RuntimeException {
+  private final List<String> violations;
+
   public InvalidPaymentException(String message) {
-    super(message);
+    super(message, null, false, false);
+    this.violations = List.of(message);
+  }
+
+  /**
+   * Reports every violation found in a request; the message is the first of them.
+   */
+  public InvalidPaymentException(List<String> violations) {
+    super(violations.get(0), null, false, false);
+    this.violations = List.copyOf(violations);
+  }
+
+  public List<String> getViolations() {
+    return violations;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+package com.checkout.payment.gateway.exception;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which occurrences of a repeated event get logged.
+ * <p>
+ * The first {@code maxPerSecond} events of each one-second window are logged. Beyond that, one in
+ * every {@code sampleRate} is, and the rest are counted as suppressed so the next logged line can
+ * report them. A {@code sampleRate} of 0 turns sampling off.
+ */
+class LogRateLimiter {
+
+  private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final int maxPerSecond;
+  private final int sampleRate;
+  private final LongSupplier nanoClock;
+  private final AtomicLong windowStart;
+  private final AtomicInteger windowEvents = new AtomicInteger();
+  private final AtomicLong suppressed = new AtomicLong();
+
+  LogRateLimiter(int maxPerSecond, int sampleRate, LongSupplier nanoClock) {
+    this.maxPerSecond = maxPerSecond;
+    this.sampleRate = sampleRate;
+    this.nanoClock = nanoClock;
+    this.windowStart = new AtomicLong(nanoClock.getAsLong());
+  }
+
+  boolean tryAcquire() {
+    long now = nanoClock.getAsLong();
+    long start = windowStart.get();
+    // Events racing with the reset may land in either window, which is close enough for logging
+    if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+      windowEvents.set(0);
+    }
+    int events = windowEvents.incrementAndGet();
+    if (events <= maxPerSecond
+        || (sampleRate > 0 && (events - maxPerSecond) % sampleRate == 0)) {
+      return true;
+    }
+    suppressed.incrementAndGet();
+    return false;
+  }
+
+  /**
+   * Returns how many events were suppressed since the last call.
+   */
+  long drainSuppressed() {
+    return suppressed.getAndSet(0);
+  }
+}
@@ -0,0 +1,11 @@
+package com.checkout.payment.gateway.exception;
+
+/**
+ * Raised when a payment is submitted to a replication follower, which only serves reads. Expected
+ * for every misrouted request, so no stack trace is captured.
+ */
+public class ReadOnlyReplicaException extends RuntimeException {
+  public ReadOnlyReplicaException(String message) {
+    super(message, null, false, false);
+  }
+}
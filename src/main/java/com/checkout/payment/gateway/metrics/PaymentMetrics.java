@@ -0,0 +1,195 @@
+package com.checkout.payment.gateway.metrics;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records timings and counts for the payment pipeline.
+ * <p>
+ * Meters are registered up front and looked up by enum ordinal, so recording only updates existing
+ * meters and does not allocate. Acquirer status counters are registered the first time each status
+ * code is seen, to keep unused codes out of the scrape. Stage timers publish histograms, which
+ * Prometheus scrapes as {@code payments_stage_seconds_bucket}.
+ */
+@Component
+public class PaymentMetrics {
+
+  public enum Stage {
+    VALIDATION("validation"),
+    BANK("bank"),
+    REPOSITORY("repository"),
+    TOTAL("total");
+
+    private final String tag;
+
+    Stage(String tag) {
+      this.tag = tag;
+    }
+  }
+
+  /**
+   * Why a request ended in an error response.
+   */
+  public enum ErrorReason {
+    INVALID_PAYMENT("invalid_payment"),
+    UNREADABLE_REQUEST("unreadable_request"),
+    INVALID_QUERY("invalid_query"),
+    NOT_FOUND("not_found"),
+    BANK_UNAVAILABLE("bank_unavailable"),
+    BANK_ERROR("bank_error"),
+    CLUSTER_UNAVAILABLE("cluster_unavailable"),
+    READ_ONLY("read_only"),
+    IDEMPOTENCY_CONFLICT("idempotency_conflict");
+
+    private final String tag;
+
+    ErrorReason(String tag) {
+      this.tag = tag;
+    }
+  }
+
+  private static final int MIN_STATUS_CODE = 100;
+  private static final int MAX_STATUS_CODE = 599;
+
+  private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+  private final Counter[] errorCounters = new Counter[ErrorReason.values().length];
+  private final Counter[][] paymentCounters =
+      new Counter[PaymentStatus.values().length][Currency.values().length];
+  private final AtomicReferenceArray<Counter> bankResponseCounters =
+      new AtomicReferenceArray<>(MAX_STATUS_CODE + 1);
+  private final MeterRegistry registry;
+  private final Counter bankErrorCounter;
+  private final Counter hedgeCounter;
+  private final Counter primaryWinCounter;
+  private final Counter hedgeWinCounter;
+  private final Counter responseCacheHitCounter;
+  private final Counter responseCacheMissCounter;
+  private final AtomicInteger inFlightPayments = new AtomicInteger();
+
+  public PaymentMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    for (Stage stage : Stage.values()) {
+      stageTimers.put(stage, Timer.builder("payments.stage")
+          .description("Time spent in each stage of payment processing")
+          .tag("stage", stage.tag)
+          .publishPercentileHistogram()
+          .register(registry));
+    }
+    for (PaymentStatus status : PaymentStatus.values()) {
+      for (Currency currency : Currency.values()) {
+        paymentCounters[status.ordinal()][currency.ordinal()] =
+            Counter.builder("payments.processed")
+                .description("Processed payments by outcome and currency")
+                .tag("status", status.getName())
+                .tag("currency", currency.getValue())
+                .register(registry);
+      }
+    }
+    for (ErrorReason reason : ErrorReason.values()) {
+      errorCounters[reason.ordinal()] = Counter.builder("payments.errors")
+          .description("Error responses by reason")
+          .tag("reason", reason.tag)
+          .register(registry);
+    }
+    bankErrorCounter = bankResponseCounter("none");
+    hedgeCounter = Counter.builder("bank.gateway.hedges")
+        .description("Hedged second attempts sent to an acquirer")
+        .register(registry);
+    primaryWinCounter = winCounter("primary");
+    hedgeWinCounter = winCounter("hedge");
+    responseCacheHitCounter = responseCacheCounter("hit");
+    responseCacheMissCounter = responseCacheCounter("miss");
+    Gauge.builder("payments.in.flight", inFlightPayments, AtomicInteger::get)
+        .description("Payments accepted but not yet authorized and stored")
+        .register(registry);
+  }
+
+  public void recordStage(Stage stage, long nanos) {
+    stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordPayment(PaymentStatus status, String currency) {
+    Currency code = Currency.fromValue(currency);
+    if (code != null) {
+      paymentCounters[status.ordinal()][code.ordinal()].increment();
+    }
+  }
+
+  public void recordError(ErrorReason reason) {
+    errorCounters[reason.ordinal()].increment();
+  }
+
+  /**
+   * Counts an acquirer response by HTTP status, or a call that got no response when
+   * {@code statusCode} is negative.
+   */
+  public void recordBankResponse(int statusCode) {
+    if (statusCode < MIN_STATUS_CODE || statusCode > MAX_STATUS_CODE) {
+      bankErrorCounter.increment();
+      return;
+    }
+    Counter counter = bankResponseCounters.get(statusCode);
+    if (counter == null) {
+      counter = bankResponseCounter(Integer.toString(statusCode));
+      bankResponseCounters.set(statusCode, counter);
+    }
+    counter.increment();
+  }
+
+  public void recordHedge() {
+    hedgeCounter.increment();
+  }
+
+  /**
+   * Counts which attempt of a hedged authorization answered first.
+   */
+  public void recordHedgeWin(boolean hedgeWon) {
+    (hedgeWon ? hedgeWinCounter : primaryWinCounter).increment();
+  }
+
+  /**
+   * Counts a GET /payment/{id} served from, or missing, the serialized response cache.
+   */
+  public void recordResponseCache(boolean hit) {
+    (hit ? responseCacheHitCounter : responseCacheMissCounter).increment();
+  }
+
+  public void paymentStarted() {
+    inFlightPayments.incrementAndGet();
+  }
+
+  public void paymentCompleted() {
+    inFlightPayments.decrementAndGet();
+  }
+
+  private Counter bankResponseCounter(String status) {
+    return Counter.builder("bank.gateway.responses")
+        .description("Acquirer responses by HTTP status")
+        .tag("status", status)
+        .register(registry);
+  }
+
+  private Counter winCounter(String winner) {
+    return Counter.builder("bank.gateway.hedge.wins")
+        .description("Hedged authorizations by the attempt that answered first")
+        .tag("winner", winner)
+        .register(registry);
+  }
+
+  private Counter responseCacheCounter(String result) {
+    return Counter.builder("payments.response.cache")
+        .description("Payment lookups by whether their serialized response was cached")
+        .tag("result", result)
+        .register(registry);
+  }
+}
@@ -0,0 +1,41 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one item of a batch submission: the payment when it was processed, otherwise the
+ * error message the single-payment endpoint would have returned.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchPaymentResult {
+  private final int index;
+  private final PostPaymentResponse payment;
+  private final String error;
+
+  public BatchPaymentResult(int index, PostPaymentResponse payment, String error) {
+    this.index = index;
+    this.payment = payment;
+    this.error = error;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public PostPaymentResponse getPayment() {
+    return payment;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  @Override
+  public String toString() {
+    return "BatchPaymentResult{" +
+        "index=" + index +
+        ", payment=" + payment +
+        ", error='" + error + '\'' +
+        '}';
+  }
+}
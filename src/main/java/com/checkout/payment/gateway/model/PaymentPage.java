@@ -0,0 +1,34 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * One page of a payment listing. {@code nextCursor} is absent on the last page.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PaymentPage {
+  private final List<GetPaymentResponse> payments;
+  private final String nextCursor;
+
+  public PaymentPage(List<GetPaymentResponse> payments, String nextCursor) {
+    this.payments = payments;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<GetPaymentResponse> getPayments() {
+    return payments;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  @Override
+  public String toString() {
+    return "PaymentPage{" +
+        "payments=" + payments +
+        ", nextCursor='" + nextCursor + '\'' +
+        '}';
+  }
+}
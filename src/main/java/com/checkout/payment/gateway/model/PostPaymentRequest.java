@@ -1,8 +1,10 @@
 package com.checkout.payment.gateway.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import java.io.Serializable;
 
+@JsonDeserialize(using = PostPaymentRequestDeserializer.class)
 public class PostPaymentRequest implements Serializable {
 
   @JsonProperty("cardNumber")
@@ -0,0 +1,116 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import java.io.IOException;
+
+/**
+ * Reads a {@link PostPaymentRequest} straight from the token stream, without an intermediate
+ * tree or map.
+ * <p>
+ * Card number and currency must be strings or {@code null}; expiry month, expiry year, amount and
+ * CVV must be present and fit in an {@code int}. Unknown fields are rejected. The whole object is
+ * always consumed before a violation is reported, so a caller reading a sequence of requests can
+ * carry on with the next one.
+ */
+public class PostPaymentRequestDeserializer extends StdDeserializer<PostPaymentRequest> {
+
+  private static final int EXPIRY_MONTH = 1;
+  private static final int EXPIRY_YEAR = 1 << 1;
+  private static final int AMOUNT = 1 << 2;
+  private static final int CVV = 1 << 3;
+  private static final int REQUIRED_FIELDS = EXPIRY_MONTH | EXPIRY_YEAR | AMOUNT | CVV;
+
+  public PostPaymentRequestDeserializer() {
+    super(PostPaymentRequest.class);
+  }
+
+  @Override
+  public PostPaymentRequest deserialize(JsonParser parser, DeserializationContext context)
+      throws IOException {
+    if (!parser.isExpectedStartObjectToken()) {
+      throw MismatchedInputException.from(parser, PostPaymentRequest.class,
+          "Payment request must be a JSON object");
+    }
+
+    PostPaymentRequest request = new PostPaymentRequest();
+    int missing = REQUIRED_FIELDS;
+    String violation = null;
+    String field;
+    while ((field = parser.nextFieldName()) != null) {
+      JsonToken value = parser.nextToken();
+      boolean valid;
+      switch (field) {
+        case "cardNumber":
+          valid = isString(value);
+          if (valid) {
+            request.setCardNumber(parser.getValueAsString());
+          }
+          break;
+        case "currency":
+          valid = isString(value);
+          if (valid) {
+            request.setCurrency(parser.getValueAsString());
+          }
+          break;
+        case "expiryMonth":
+          valid = isInt(parser, value);
+          if (valid) {
+            request.setExpiryMonth(parser.getIntValue());
+            missing &= ~EXPIRY_MONTH;
+          }
+          break;
+        case "expiryYear":
+          valid = isInt(parser, value);
+          if (valid) {
+            request.setExpiryYear(parser.getIntValue());
+            missing &= ~EXPIRY_YEAR;
+          }
+          break;
+        case "amount":
+          valid = isInt(parser, value);
+          if (valid) {
+            request.setAmount(parser.getIntValue());
+            missing &= ~AMOUNT;
+          }
+          break;
+        case "cvv":
+          valid = isInt(parser, value);
+          if (valid) {
+            request.setCvv(parser.getIntValue());
+            missing &= ~CVV;
+          }
+          break;
+        default:
+          if (violation == null) {
+            violation = "Unknown field '" + field + "'";
+          }
+          valid = true;
+      }
+      if (!valid && violation == null) {
+        violation = "Invalid value for field '" + field + "'";
+      }
+      parser.skipChildren();
+    }
+
+    if (violation == null && missing != 0) {
+      violation = "Missing required payment fields";
+    }
+    if (violation != null) {
+      throw MismatchedInputException.from(parser, PostPaymentRequest.class, violation);
+    }
+    return request;
+  }
+
+  private static boolean isString(JsonToken token) {
+    return token == JsonToken.VALUE_STRING || token == JsonToken.VALUE_NULL;
+  }
+
+  private static boolean isInt(JsonParser parser, JsonToken token) throws IOException {
+    return token == JsonToken.VALUE_NUMBER_INT
+        && parser.getNumberType() == JsonParser.NumberType.INT;
+  }
+}
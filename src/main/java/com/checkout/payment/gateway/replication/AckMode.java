@@ -0,0 +1,16 @@
+package com.checkout.payment.gateway.replication;
+
+/**
+ * When a payment stored on the leader counts as written.
+ */
+public enum AckMode {
+  /**
+   * As soon as it is stored locally; followers catch up in the background.
+   */
+  ASYNC,
+  /**
+   * Once a connected follower has acknowledged it, or after
+   * {@code payments.replication.ack-timeout}, whichever comes first.
+   */
+  SEMI_SYNC
+}
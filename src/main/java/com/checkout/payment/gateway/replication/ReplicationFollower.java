@@ -0,0 +1,164 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.replication.ReplicationProtocol.Frame;
+import com.checkout.payment.gateway.repository.PaymentRecord;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies the leader's payments to the local store, enabled with
+ * {@code payments.replication.role=follower}. A follower serves reads only.
+ * <p>
+ * Connects to the leader at {@code payments.replication.leader} ({@code host:port}), resumes
+ * after the last record it applied, and acknowledges every frame once its records are stored. It
+ * answers the leader's challenge with {@code payments.replication.secret}.
+ * A lost connection is retried every {@code payments.replication.reconnect-delay}; a connection
+ * that stays silent for three heartbeat intervals is treated as lost.
+ * <p>
+ * {@link #getLagMillis()} is how far the store trails the leader: while catching up, the age of
+ * the newest record applied; once caught up, the time the last frame took to arrive; and while
+ * disconnected, that plus the time since the leader was last heard from.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.replication.role", havingValue = "follower")
+public class ReplicationFollower {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplicationFollower.class);
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final PaymentsRepository repository;
+  private final InetSocketAddress leader;
+  private final String secret;
+  private final int readTimeoutMillis;
+  private final long reconnectDelayMillis;
+  private volatile boolean closed;
+  private volatile Socket socket;
+  private volatile long lagMillis;
+  private volatile long lastHeardAt;
+  private long epoch;
+  private volatile long appliedSequence = ReplicationProtocol.NO_SEQUENCE;
+
+  public ReplicationFollower(PaymentsRepository repository,
+      @Value("${payments.replication.leader:localhost:7070}") String leader,
+      @Value("${payments.replication.secret:}") String secret,
+      @Value("${payments.replication.heartbeat-interval:1s}") Duration heartbeatInterval,
+      @Value("${payments.replication.reconnect-delay:1s}") Duration reconnectDelay) {
+    this.repository = repository;
+    int separator = leader.lastIndexOf(':');
+    this.leader = InetSocketAddress.createUnresolved(leader.substring(0, separator),
+        Integer.parseInt(leader.substring(separator + 1)));
+    this.secret = ReplicationProtocol.requireSecret(secret);
+    this.readTimeoutMillis = (int) Math.min(Integer.MAX_VALUE, heartbeatInterval.toMillis() * 3);
+    this.reconnectDelayMillis = reconnectDelay.toMillis();
+    this.lastHeardAt = System.currentTimeMillis();
+  }
+
+  @PostConstruct
+  public void start() {
+    Thread thread = new Thread(this::run, "replication-follower");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @PreDestroy
+  public void close() throws IOException {
+    closed = true;
+    Socket current = socket;
+    if (current != null) {
+      current.close();
+    }
+  }
+
+  public long getLagMillis() {
+    long silentFor = System.currentTimeMillis() - lastHeardAt;
+    return silentFor > readTimeoutMillis ? lagMillis + silentFor : lagMillis;
+  }
+
+  public long getAppliedSequence() {
+    return appliedSequence;
+  }
+
+  private void run() {
+    while (!closed) {
+      try (Socket connection = new Socket()) {
+        socket = connection;
+        connection.connect(new InetSocketAddress(leader.getHostString(), leader.getPort()),
+            readTimeoutMillis);
+        connection.setTcpNoDelay(true);
+        connection.setSoTimeout(readTimeoutMillis);
+        replicate(connection);
+      } catch (IOException e) {
+        if (!closed) {
+          LOG.warn("Replication from {} interrupted: {}", leader, e.getMessage());
+        }
+      }
+      sleep(reconnectDelayMillis);
+    }
+  }
+
+  private void replicate(Socket connection) throws IOException {
+    DataInputStream in =
+        new DataInputStream(new BufferedInputStream(connection.getInputStream(), BUFFER_SIZE));
+    DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+    out.writeInt(ReplicationProtocol.MAGIC);
+    out.writeLong(epoch);
+    out.writeLong(appliedSequence);
+    out.flush();
+    ReplicationProtocol.checkMagic(in.readInt());
+    long leaderEpoch = in.readLong();
+    byte[] nonce = new byte[ReplicationProtocol.NONCE_SIZE];
+    in.readFully(nonce);
+    out.write(ReplicationProtocol.prove(secret, nonce));
+    out.flush();
+    if (leaderEpoch != epoch) {
+      epoch = leaderEpoch;
+      appliedSequence = ReplicationProtocol.NO_SEQUENCE;
+    }
+    LOG.info("Replicating from {} after sequence {}", leader, appliedSequence);
+
+    while (!closed) {
+      Frame frame = ReplicationProtocol.readFrame(in);
+      for (byte[] record : frame.records) {
+        repository.addRecord(record);
+      }
+      long now = System.currentTimeMillis();
+      lastHeardAt = now;
+      if (frame.records.length > 0 && frame.lastSequence < frame.leaderLastSequence) {
+        byte[] newest = frame.records[frame.records.length - 1];
+        lagMillis = Math.max(0, now - PaymentRecord.wrap(newest).getStoredAt());
+      } else {
+        lagMillis = Math.max(0, now - frame.leaderTimeMillis);
+      }
+      if (frame.lastSequence != ReplicationProtocol.NO_SEQUENCE) {
+        appliedSequence = frame.lastSequence;
+        out.writeLong(appliedSequence);
+        if (in.available() == 0) {
+          out.flush();
+        }
+      }
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
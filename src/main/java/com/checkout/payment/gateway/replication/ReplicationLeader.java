@@ -0,0 +1,238 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.repository.PaymentRecord;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streams the {@link ReplicationLog} to followers, enabled with
+ * {@code payments.replication.role=leader}.
+ * <p>
+ * Followers connect to {@code payments.replication.port} on
+ * {@code payments.replication.bind-address}, loopback unless configured otherwise, and must prove
+ * they hold {@code payments.replication.secret} (see {@link ReplicationProtocol}). Each gets its
+ * own sender and
+ * acknowledgement reader, so frames of up to {@code payments.replication.batch-size} records are
+ * pipelined: the sender keeps writing while earlier frames are still being applied, and flushes
+ * whenever it has caught up with the log. A follower that is new, was following an earlier run of
+ * the leader, or fell out of the log is first sent a snapshot of the whole store. Heartbeat frames
+ * every {@code payments.replication.heartbeat-interval} keep idle connections alive and let
+ * followers measure their lag.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.replication.role", havingValue = "leader")
+public class ReplicationLeader {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplicationLeader.class);
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final ReplicationLog log;
+  private final PaymentsRepository repository;
+  private final InetAddress bindAddress;
+  private final int port;
+  private final String secret;
+  private final int batchSize;
+  private final long heartbeatNanos;
+  private final long epoch = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+  private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+  private ServerSocket serverSocket;
+  private volatile boolean closed;
+
+  public ReplicationLeader(ReplicationLog log, PaymentsRepository repository,
+      @Value("${payments.replication.bind-address:127.0.0.1}") InetAddress bindAddress,
+      @Value("${payments.replication.port:7070}") int port,
+      @Value("${payments.replication.secret:}") String secret,
+      @Value("${payments.replication.batch-size:256}") int batchSize,
+      @Value("${payments.replication.heartbeat-interval:1s}") Duration heartbeatInterval) {
+    this.log = log;
+    this.repository = repository;
+    this.bindAddress = bindAddress;
+    this.port = port;
+    this.secret = ReplicationProtocol.requireSecret(secret);
+    this.batchSize = Math.max(1, batchSize);
+    this.heartbeatNanos = heartbeatInterval.toNanos();
+  }
+
+  @PostConstruct
+  public void start() throws IOException {
+    serverSocket = new ServerSocket();
+    serverSocket.bind(new InetSocketAddress(bindAddress, port));
+    startThread("replication-leader", this::accept);
+    LOG.info("Replicating payments to followers on {}:{}", bindAddress.getHostAddress(),
+        getPort());
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  @PreDestroy
+  public void close() throws IOException {
+    closed = true;
+    serverSocket.close();
+    for (Socket follower : followers) {
+      follower.close();
+    }
+  }
+
+  private void accept() {
+    while (!closed) {
+      try {
+        Socket socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+        followers.add(socket);
+        startThread("replication-sender-" + socket.getRemoteSocketAddress(),
+            () -> serve(socket));
+      } catch (IOException e) {
+        if (!closed) {
+          LOG.warn("Could not accept follower: {}", e.getMessage());
+        }
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    boolean connected = false;
+    try (socket) {
+      DataInputStream in =
+          new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+      DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+      ReplicationProtocol.checkMagic(in.readInt());
+      long followerEpoch = in.readLong();
+      long position = in.readLong();
+      byte[] nonce = ReplicationProtocol.newNonce();
+      out.writeInt(ReplicationProtocol.MAGIC);
+      out.writeLong(epoch);
+      out.write(nonce);
+      out.flush();
+      byte[] proof = new byte[ReplicationProtocol.PROOF_SIZE];
+      in.readFully(proof);
+      ReplicationProtocol.checkProof(secret, nonce, proof);
+      if (followerEpoch != epoch) {
+        position = ReplicationProtocol.NO_SEQUENCE;
+      }
+
+      log.followerConnected();
+      connected = true;
+      LOG.info("Follower {} connected at sequence {}", socket.getRemoteSocketAddress(), position);
+      AtomicLong sent = new AtomicLong(ReplicationProtocol.NO_SEQUENCE);
+      startThread("replication-acks-" + socket.getRemoteSocketAddress(),
+          () -> readAcknowledgements(socket, in, sent));
+      stream(out, position, sent);
+    } catch (IOException e) {
+      if (!closed) {
+        LOG.warn("Follower {} disconnected: {}", socket.getRemoteSocketAddress(), e.getMessage());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      followers.remove(socket);
+      if (connected) {
+        log.followerDisconnected();
+      }
+    }
+  }
+
+  /**
+   * Sends the log after {@code position}, recording in {@code sent} the last sequence written so
+   * that acknowledgements can be checked against it.
+   */
+  private void stream(DataOutputStream out, long position, AtomicLong sent)
+      throws IOException, InterruptedException {
+    byte[][] batch = new byte[batchSize][];
+    while (!closed) {
+      int count = log.read(position, batch, heartbeatNanos);
+      if (count < 0) {
+        position = sendSnapshot(out, batch, sent);
+        continue;
+      }
+      position += count;
+      sent.set(position);
+      ReplicationProtocol.writeFrame(out, position, log.getLastSequence(), batch, count);
+      if (count < batch.length) {
+        out.flush();
+      }
+    }
+  }
+
+  /**
+   * Sends every stored payment, then an empty frame carrying the sequence the log was at when the
+   * snapshot started. Records appended meanwhile are sent again from the log, which followers
+   * ignore.
+   */
+  private long sendSnapshot(DataOutputStream out, byte[][] batch, AtomicLong sent)
+      throws IOException {
+    long sequence = log.getLastSequence();
+    int count = 0;
+    for (Iterator<PaymentRecord> it = repository.scan(); it.hasNext(); ) {
+      PaymentRecord payment = it.next();
+      byte[] record = new byte[payment.length()];
+      payment.copyTo(record, 0);
+      batch[count++] = record;
+      if (count == batch.length) {
+        ReplicationProtocol.writeFrame(out, ReplicationProtocol.NO_SEQUENCE, sequence, batch,
+            count);
+        count = 0;
+      }
+    }
+    ReplicationProtocol.writeFrame(out, ReplicationProtocol.NO_SEQUENCE, sequence, batch, count);
+    sent.set(sequence);
+    ReplicationProtocol.writeFrame(out, sequence, sequence, batch, 0);
+    out.flush();
+    return sequence;
+  }
+
+  /**
+   * Passes the follower's acknowledgements on to the log. An acknowledgement beyond what was
+   * {@code sent} on this connection would release semi-synchronous writers for records the
+   * follower never received, so it ends the connection instead.
+   */
+  private void readAcknowledgements(Socket socket, DataInputStream in, AtomicLong sent) {
+    try {
+      while (!closed) {
+        long sequence = in.readLong();
+        if (sequence < 0 || sequence > sent.get()) {
+          LOG.warn("Follower {} acknowledged unsent sequence {}", socket.getRemoteSocketAddress(),
+              sequence);
+          break;
+        }
+        log.acknowledge(sequence);
+      }
+    } catch (IOException e) {
+      // Connection lost; the sender notices on its next write
+    }
+    try {
+      socket.close();
+    } catch (IOException ignored) {
+      // Already closing
+    }
+  }
+
+  private static void startThread(String name, Runnable task) {
+    Thread thread = new Thread(task, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+}
@@ -0,0 +1,173 @@
+package com.checkout.payment.gateway.replication;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * The leader's log of recently stored payments, which {@link ReplicationLeader} streams to
+ * followers.
+ * <p>
+ * Every stored record gets the next sequence number and is kept in a ring of
+ * {@code payments.replication.log-capacity} records; a follower that falls further behind is sent
+ * a snapshot instead. With {@link AckMode#SEMI_SYNC}, {@link #append} waits until a connected
+ * follower has acknowledged the record, for at most {@code payments.replication.ack-timeout}.
+ * Concurrent writers wait together, so one acknowledgement releases a whole batch. Without a
+ * connected follower nothing waits.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.replication.role", havingValue = "leader")
+public class ReplicationLog {
+
+  private final byte[][] ring;
+  private final AckMode ackMode;
+  private final long ackTimeoutNanos;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition appended = lock.newCondition();
+  private final Condition acknowledged = lock.newCondition();
+  private final AtomicLong ackTimeouts = new AtomicLong();
+  private long lastSequence;
+  private long acknowledgedSequence;
+  private int followers;
+
+  public ReplicationLog(
+      @Value("${payments.replication.log-capacity:262144}") int capacity,
+      @Value("${payments.replication.ack-mode:async}") AckMode ackMode,
+      @Value("${payments.replication.ack-timeout:100ms}") Duration ackTimeout) {
+    this.ring = new byte[Math.max(1, capacity)][];
+    this.ackMode = ackMode;
+    this.ackTimeoutNanos = ackTimeout.toNanos();
+  }
+
+  /**
+   * Adds a stored record and returns its sequence number, waiting for a follower's
+   * acknowledgement first in {@link AckMode#SEMI_SYNC} mode.
+   */
+  public long append(byte[] record) {
+    lock.lock();
+    try {
+      long sequence = ++lastSequence;
+      ring[(int) ((sequence - 1) % ring.length)] = record;
+      appended.signalAll();
+      if (ackMode == AckMode.SEMI_SYNC) {
+        awaitAcknowledgement(sequence);
+      }
+      return sequence;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Copies the records after sequence {@code after} into {@code batch}, waiting up to
+   * {@code maxWaitNanos} for one to be appended.
+   *
+   * @return the number of records copied, possibly zero, or -1 when the log no longer holds the
+   *     record after {@code after} and the reader needs a snapshot
+   */
+  public int read(long after, byte[][] batch, long maxWaitNanos) throws InterruptedException {
+    lock.lock();
+    try {
+      long remaining = maxWaitNanos;
+      while (lastSequence <= after && remaining > 0) {
+        remaining = appended.awaitNanos(remaining);
+      }
+      if (after < 0 || after > lastSequence || after < lastSequence - ring.length) {
+        return -1;
+      }
+      int count = (int) Math.min(batch.length, lastSequence - after);
+      for (int i = 0; i < count; i++) {
+        batch[i] = ring[(int) ((after + i) % ring.length)];
+      }
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void acknowledge(long sequence) {
+    lock.lock();
+    try {
+      if (sequence > acknowledgedSequence) {
+        acknowledgedSequence = sequence;
+        acknowledged.signalAll();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void followerConnected() {
+    lock.lock();
+    try {
+      followers++;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void followerDisconnected() {
+    lock.lock();
+    try {
+      followers--;
+      acknowledged.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long getLastSequence() {
+    lock.lock();
+    try {
+      return lastSequence;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Records appended but not yet acknowledged by any follower.
+   */
+  public long getUnacknowledged() {
+    lock.lock();
+    try {
+      return lastSequence - Math.min(acknowledgedSequence, lastSequence);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getFollowers() {
+    lock.lock();
+    try {
+      return followers;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Semi-synchronous appends that stopped waiting for a follower.
+   */
+  public long getAckTimeouts() {
+    return ackTimeouts.get();
+  }
+
+  private void awaitAcknowledgement(long sequence) {
+    long remaining = ackTimeoutNanos;
+    try {
+      while (acknowledgedSequence < sequence && followers > 0 && remaining > 0) {
+        remaining = acknowledged.awaitNanos(remaining);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (acknowledgedSequence < sequence && followers > 0) {
+      ackTimeouts.incrementAndGet();
+    }
+  }
+}
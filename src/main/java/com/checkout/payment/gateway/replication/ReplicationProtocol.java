@@ -0,0 +1,128 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.repository.PaymentRecord;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * The replication wire format, over one TCP connection per follower.
+ * <p>
+ * The follower opens with {@code [int magic][long epoch][long sequence]}: the leader epoch and
+ * sequence of the last record it applied, or -1 for none. The leader answers
+ * {@code [int magic][long epoch][16 byte nonce]} with its own epoch, which changes on every
+ * restart. The follower proves it knows {@code payments.replication.secret} by sending the
+ * HMAC-SHA256 of the nonce under it, 32 bytes, and the leader closes the connection if that does
+ * not match. The secret itself never crosses the wire. The leader then streams frames without
+ * waiting for acknowledgements:
+ * <pre>
+ *   int   record count, possibly zero for a heartbeat
+ *   long  sequence of the last record in the frame, or -1 inside a snapshot
+ *   long  leader's latest sequence when the frame was sent
+ *   long  leader's clock when the frame was sent, epoch millis
+ *   ...   the records in the packed format, back to back
+ * </pre>
+ * The follower acknowledges each frame it has applied with {@code [long sequence]}; the leader
+ * drops a follower that acknowledges a sequence it was not sent.
+ */
+final class ReplicationProtocol {
+
+  static final int MAGIC = 0x50524550;
+  static final long NO_SEQUENCE = -1;
+  static final int NONCE_SIZE = 16;
+  static final int PROOF_SIZE = 32;
+
+  private static final String HMAC = "HmacSHA256";
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private ReplicationProtocol() {
+  }
+
+  static void writeFrame(DataOutputStream out, long lastSequence, long leaderLastSequence,
+      byte[][] records, int count) throws IOException {
+    out.writeInt(count);
+    out.writeLong(lastSequence);
+    out.writeLong(leaderLastSequence);
+    out.writeLong(System.currentTimeMillis());
+    for (int i = 0; i < count; i++) {
+      out.write(records[i]);
+    }
+  }
+
+  static Frame readFrame(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    if (count < 0) {
+      throw new IOException("Invalid replication frame of " + count + " records");
+    }
+    Frame frame = new Frame(count, in.readLong(), in.readLong(), in.readLong());
+    byte[] fixed = new byte[PaymentRecord.SIZE];
+    for (int i = 0; i < count; i++) {
+      in.readFully(fixed);
+      int length = PaymentRecord.wrap(fixed).length();
+      if (length < PaymentRecord.SIZE) {
+        throw new IOException("Invalid replicated record of " + length + " bytes");
+      }
+      byte[] record = Arrays.copyOf(fixed, length);
+      in.readFully(record, PaymentRecord.SIZE, length - PaymentRecord.SIZE);
+      frame.records[i] = record;
+    }
+    return frame;
+  }
+
+  static void checkMagic(int magic) throws IOException {
+    if (magic != MAGIC) {
+      throw new IOException("Not a replication peer");
+    }
+  }
+
+  static byte[] newNonce() {
+    byte[] nonce = new byte[NONCE_SIZE];
+    RANDOM.nextBytes(nonce);
+    return nonce;
+  }
+
+  static byte[] prove(String secret, byte[] nonce) {
+    try {
+      Mac mac = Mac.getInstance(HMAC);
+      mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC));
+      return mac.doFinal(nonce);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static void checkProof(String secret, byte[] nonce, byte[] proof) throws IOException {
+    if (!MessageDigest.isEqual(prove(secret, nonce), proof)) {
+      throw new IOException("Follower did not present the replication secret");
+    }
+  }
+
+  static String requireSecret(String secret) {
+    if (secret == null || secret.isBlank()) {
+      throw new IllegalStateException(
+          "payments.replication.secret must be set when payments.replication.role is set");
+    }
+    return secret;
+  }
+
+  static final class Frame {
+    final byte[][] records;
+    final long lastSequence;
+    final long leaderLastSequence;
+    final long leaderTimeMillis;
+
+    private Frame(int count, long lastSequence, long leaderLastSequence, long leaderTimeMillis) {
+      this.records = new byte[count][];
+      this.lastSequence = lastSequence;
+      this.leaderLastSequence = leaderLastSequence;
+      this.leaderTimeMillis = leaderTimeMillis;
+    }
+  }
+}
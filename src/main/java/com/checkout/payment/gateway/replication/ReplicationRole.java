@@ -0,0 +1,19 @@
+package com.checkout.payment.gateway.replication;
+
+/**
+ * This node's part in replication, set with {@code payments.replication.role}.
+ */
+public enum ReplicationRole {
+  /**
+   * Not replicating.
+   */
+  NONE,
+  /**
+   * Accepts payments and streams them to followers.
+   */
+  LEADER,
+  /**
+   * Applies the leader's payments and serves reads only.
+   */
+  FOLLOWER
+}
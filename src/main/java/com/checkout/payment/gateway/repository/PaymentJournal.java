@@ -0,0 +1,360 @@
+package com.checkout.payment.gateway.repository;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Append-only write-ahead journal of stored payments, enabled with
+ * {@code payments.journal.enabled=true}.
+ * <p>
+ * Each {@link PaymentRecord} is appended to a memory-mapped segment file as
+ * {@code [int length][record][int crc32]}. Segments are pre-sized to
+ * {@code payments.journal.segment-size}, at most 2GB since a segment is mapped as one buffer, and
+ * a new one is started when the active segment is full.
+ * <p>
+ * Writes are made durable by a background flusher that forces the active segment every
+ * {@code payments.journal.flush-interval}, so concurrent appends share one fsync. With
+ * {@code payments.journal.await-flush=true} an append returns only once its flush has completed.
+ * <p>
+ * Closed segments are deleted once the repository could no longer hold any of their records:
+ * when the newest one is past the repository's time-to-live, or when at least
+ * {@code payments.repository.max-entries} newer records follow them. The repository evicts the
+ * oldest payments first, so replay would evict those records again straight away.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.journal.enabled", havingValue = "true")
+public class PaymentJournal {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentJournal.class);
+  private static final String SEGMENT_PREFIX = "payments-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final int ENTRY_OVERHEAD = Integer.BYTES + Integer.BYTES;
+  private static final int MIN_ENTRY_SIZE = ENTRY_OVERHEAD + PaymentRecord.SIZE;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final boolean awaitFlush;
+  private final long retentionMillis;
+  private final int maxEntries;
+  private final ScheduledExecutorService scheduler;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition flushed = lock.newCondition();
+  private final List<Segment> closedSegments = new ArrayList<>();
+  private Segment active;
+  private long appendedSequence;
+  private long flushedSequence;
+
+  public PaymentJournal(
+      @Value("${payments.journal.directory:./data/journal}") Path directory,
+      @Value("${payments.journal.segment-size:64MB}") DataSize segmentSize,
+      @Value("${payments.journal.flush-interval:5ms}") Duration flushInterval,
+      @Value("${payments.journal.await-flush:true}") boolean awaitFlush,
+      @Value("${payments.repository.time-to-live:0s}") Duration retention,
+      @Value("${payments.repository.max-entries:1000000}") int maxEntries) throws IOException {
+    if (segmentSize.toBytes() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("payments.journal.segment-size must be below 2GB, was "
+          + segmentSize);
+    }
+    this.directory = directory;
+    this.segmentSize = (int) Math.max(MIN_ENTRY_SIZE, segmentSize.toBytes());
+    this.awaitFlush = awaitFlush;
+    this.retentionMillis = retention.toMillis();
+    this.maxEntries = maxEntries;
+
+    Files.createDirectories(directory);
+    List<Path> paths = listSegments();
+    for (int i = 0; i < paths.size() - 1; i++) {
+      closedSegments.add(new Segment(paths.get(i), indexOf(paths.get(i))));
+    }
+    this.active = paths.isEmpty()
+        ? openSegment(0)
+        : openSegment(indexOf(paths.get(paths.size() - 1)));
+    this.active.position = validLength(active.buffer, active.path);
+
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "payment-journal");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long flushNanos = Math.max(1, flushInterval.toNanos());
+    scheduler.scheduleWithFixedDelay(this::flush, flushNanos, flushNanos, TimeUnit.NANOSECONDS);
+    if (retentionMillis > 0 || maxEntries > 0) {
+      scheduler.scheduleWithFixedDelay(this::compact, 1, 1, TimeUnit.MINUTES);
+    }
+  }
+
+  public void append(byte[] record) {
+    int crc = crc(record, 0, record.length);
+    long sequence;
+    lock.lock();
+    try {
+      int entrySize = ENTRY_OVERHEAD + record.length;
+      if (active.position + entrySize > active.buffer.capacity()) {
+        roll(entrySize);
+      }
+      int position = active.position;
+      active.buffer.put(position + Integer.BYTES, record);
+      active.buffer.putInt(position + Integer.BYTES + record.length, crc);
+      active.buffer.putInt(position, record.length);
+      active.position = position + entrySize;
+      active.newestStoredAt = PaymentRecord.wrap(record).getStoredAt();
+      active.records++;
+      sequence = ++appendedSequence;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to roll payment journal segment", e);
+    } finally {
+      lock.unlock();
+    }
+    if (awaitFlush) {
+      awaitFlushed(sequence);
+    }
+  }
+
+  /**
+   * Reads every intact record in append order. Segments are read and CRC-checked in parallel;
+   * reading a segment stops at its first torn or corrupt entry.
+   */
+  public List<byte[]> replay() {
+    List<Segment> segments;
+    lock.lock();
+    try {
+      segments = new ArrayList<>(closedSegments);
+      segments.add(active);
+    } finally {
+      lock.unlock();
+    }
+    return segments.parallelStream()
+        .map(this::readSegment)
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+  }
+
+  @PreDestroy
+  public void close() throws IOException {
+    scheduler.shutdown();
+    flush();
+    lock.lock();
+    try {
+      active.channel.close();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void flush() {
+    Segment segment;
+    long target;
+    lock.lock();
+    try {
+      if (appendedSequence == flushedSequence) {
+        return;
+      }
+      segment = active;
+      target = appendedSequence;
+    } finally {
+      lock.unlock();
+    }
+    segment.buffer.force();
+    lock.lock();
+    try {
+      flushedSequence = Math.max(flushedSequence, target);
+      flushed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Deletes closed segments that are past the time-to-live or evicted by max-entries. A segment
+   * that has not been read since startup has no record count or timestamp yet and is kept.
+   */
+  void compact() {
+    long cutoff = System.currentTimeMillis() - retentionMillis;
+    lock.lock();
+    try {
+      long newerRecords = active.records;
+      for (Segment segment : closedSegments) {
+        newerRecords += segment.records;
+      }
+      Iterator<Segment> segments = closedSegments.iterator();
+      while (segments.hasNext()) {
+        Segment segment = segments.next();
+        newerRecords -= segment.records;
+        boolean expired = retentionMillis > 0 && segment.newestStoredAt != 0
+            && segment.newestStoredAt < cutoff;
+        boolean evicted = maxEntries > 0 && segment.records > 0 && newerRecords >= maxEntries;
+        if (!expired && !evicted) {
+          continue;
+        }
+        Files.deleteIfExists(segment.path);
+        segments.remove();
+        LOG.info("Deleted {} payment journal segment {}", expired ? "expired" : "evicted",
+            segment.path);
+      }
+    } catch (IOException e) {
+      LOG.warn("Unable to compact payment journal", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void awaitFlushed(long sequence) {
+    lock.lock();
+    try {
+      while (flushedSequence < sequence) {
+        flushed.await();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for payment journal flush", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void roll(int entrySize) throws IOException {
+    active.buffer.force();
+    active.channel.close();
+    closedSegments.add(
+        new Segment(active.path, active.index, active.newestStoredAt, active.records));
+    active = openSegment(active.index + 1, entrySize);
+  }
+
+  private Segment openSegment(long index) throws IOException {
+    return openSegment(index, 0);
+  }
+
+  /**
+   * Maps segment {@code index}, at least {@code minSize} bytes so that an entry larger than
+   * {@code payments.journal.segment-size} still fits.
+   */
+  private Segment openSegment(long index, int minSize) throws IOException {
+    Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index,
+        SEGMENT_SUFFIX));
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    long size = Math.max(channel.size(), Math.max(segmentSize, minSize));
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    return new Segment(path, index, channel, buffer);
+  }
+
+  private List<byte[]> readSegment(Segment segment) {
+    try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      int length = validLength(buffer, segment.path);
+      List<byte[]> records = new ArrayList<>(length / MIN_ENTRY_SIZE);
+      int position = 0;
+      while (position < length) {
+        byte[] record = new byte[buffer.getInt(position)];
+        buffer.get(position + Integer.BYTES, record);
+        records.add(record);
+        position += ENTRY_OVERHEAD + record.length;
+      }
+      if (!records.isEmpty()) {
+        segment.newestStoredAt = PaymentRecord.wrap(records.get(records.size() - 1))
+            .getStoredAt();
+      }
+      segment.records = records.size();
+      return records;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read payment journal segment " + segment.path, e);
+    }
+  }
+
+  private static int validLength(MappedByteBuffer buffer, Path path) {
+    int position = 0;
+    while (position + MIN_ENTRY_SIZE <= buffer.capacity()) {
+      int length = buffer.getInt(position);
+      if (length < PaymentRecord.SIZE
+          || length > buffer.capacity() - position - ENTRY_OVERHEAD
+          || PaymentRecord.wrap(buffer, position + Integer.BYTES).length() != length) {
+        break;
+      }
+      int expected = buffer.getInt(position + Integer.BYTES + length);
+      CRC32 crc = new CRC32();
+      crc.update(buffer.slice(position + Integer.BYTES, length));
+      if ((int) crc.getValue() != expected) {
+        LOG.warn("Corrupt payment journal entry in {} at offset {}, ignoring the rest", path,
+            position);
+        break;
+      }
+      position += ENTRY_OVERHEAD + length;
+    }
+    return position;
+  }
+
+  private static int crc(byte[] bytes, int offset, int length) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, offset, length);
+    return (int) crc.getValue();
+  }
+
+  private List<Path> listSegments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(path -> {
+            String name = path.getFileName().toString();
+            return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+          })
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static long indexOf(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+        name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private static final class Segment {
+    private final Path path;
+    private final long index;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+    private volatile long newestStoredAt;
+    private volatile int records;
+
+    private Segment(Path path, long index) {
+      this(path, index, null, null);
+    }
+
+    private Segment(Path path, long index, long newestStoredAt, int records) {
+      this(path, index, null, null);
+      this.newestStoredAt = newestStoredAt;
+      this.records = records;
+    }
+
+    private Segment(Path path, long index, FileChannel channel, MappedByteBuffer buffer) {
+      this.path = path;
+      this.index = index;
+      this.channel = channel;
+      this.buffer = buffer;
+    }
+  }
+}
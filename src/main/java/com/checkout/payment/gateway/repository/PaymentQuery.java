@@ -0,0 +1,86 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Filter and page position for {@link PaymentsRepository#find(PaymentQuery)}.
+ * <p>
+ * Status and currency are optional, and the time window is inclusive of {@code from} and
+ * exclusive of {@code to}. A cursor, as returned by {@link #cursorOf(PaymentRecord)}, resumes the
+ * listing after the payment it was taken from.
+ */
+public final class PaymentQuery {
+
+  private static final int CURSOR_BYTES = 3 * Long.BYTES;
+
+  private final PaymentStatus status;
+  private final Currency currency;
+  private final long fromMillis;
+  private final long toMillis;
+  private final byte[] after;
+  private final int limit;
+
+  /**
+   * @throws IllegalArgumentException if the cursor is malformed or the limit is not positive
+   */
+  public PaymentQuery(PaymentStatus status, Currency currency, Instant from, Instant to,
+      String cursor, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Limit must be positive");
+    }
+    this.status = status;
+    this.currency = currency;
+    this.fromMillis = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+    this.toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+    this.after = cursor == null ? null : decodeCursor(cursor);
+    this.limit = limit;
+  }
+
+  /**
+   * Returns an opaque cursor that continues a listing after {@code record}.
+   */
+  public static String cursorOf(PaymentRecord record) {
+    ByteBuffer cursor = ByteBuffer.allocate(CURSOR_BYTES)
+        .putLong(record.getStoredAt())
+        .putLong(record.getIdMostSignificantBits())
+        .putLong(record.getIdLeastSignificantBits());
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.array());
+  }
+
+  public PaymentStatus getStatus() {
+    return status;
+  }
+
+  public Currency getCurrency() {
+    return currency;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  long getFromMillis() {
+    return fromMillis;
+  }
+
+  long getToMillis() {
+    return toMillis;
+  }
+
+  byte[] getAfter() {
+    return after;
+  }
+
+  private static byte[] decodeCursor(String cursor) {
+    byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+    if (bytes.length != CURSOR_BYTES) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return PaymentRecord.key(buffer.getLong(), buffer.getLong(), buffer.getLong());
+  }
+}
@@ -0,0 +1,345 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Flyweight view over a payment stored in the packed record format: {@value #SIZE} bytes, followed
+ * by a tail only when the authorization code does not fit in the fixed part.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ *   0  long  id most significant bits
+ *   8  long  id least significant bits
+ *  16  long  time the payment was stored, epoch millis
+ *  24  byte  status ordinal + 1, 0 when absent
+ *  25  byte  currency ordinal + 1, 0 when absent
+ *  26  byte  authorization code encoding, see AUTH_CODE_* constants
+ *  27  byte  authorization code length when stored as raw ASCII
+ *  28  int   card number last four
+ *  32  int   expiry month
+ *  36  int   expiry year
+ *  40  int   amount
+ *  44  16    authorization code, as UUID bits or raw ASCII, or the int length of the tail
+ *  60  ...   tail: the authorization code in UTF-8, present only for the tail encoding
+ * </pre>
+ * Lower-case canonical UUIDs and ASCII codes of up to 16 characters fit in the fixed part; any
+ * other code goes into the tail, so every code the acquirer returns is stored as it was sent. The
+ * length of a record can be read from its fixed part (see {@link #length()}), so records can be
+ * stored back to back.
+ * <p>
+ * The view reads fields straight from the underlying buffer, so the buffer may be a heap array, a
+ * direct buffer or a mapped file region.
+ */
+public final class PaymentRecord {
+
+  public static final int SIZE = 60;
+
+  private static final int ID_MSB = 0;
+  private static final int ID_LSB = 8;
+  private static final int STORED_AT = 16;
+  private static final int STATUS = 24;
+  private static final int CURRENCY = 25;
+  private static final int AUTH_CODE_ENCODING = 26;
+  private static final int AUTH_CODE_LENGTH = 27;
+  private static final int CARD_NUMBER_LAST_FOUR = 28;
+  private static final int EXPIRY_MONTH = 32;
+  private static final int EXPIRY_YEAR = 36;
+  private static final int AMOUNT = 40;
+  private static final int AUTH_CODE = 44;
+  private static final int AUTH_CODE_BYTES = 16;
+
+  private static final byte AUTH_CODE_NONE = 0;
+  private static final byte AUTH_CODE_UUID = 1;
+  private static final byte AUTH_CODE_ASCII = 2;
+  private static final byte AUTH_CODE_TAIL = 3;
+
+  private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+  private static final Currency[] CURRENCIES = Currency.values();
+  private static final VarHandle LONG_VIEW =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+  /**
+   * Orders records by the time they were stored, then by id. Reads the packed bytes directly, so
+   * comparisons in sorted indexes do not allocate.
+   */
+  public static final Comparator<byte[]> STORED_AT_ORDER = (left, right) -> {
+    int order = Long.compare(readLong(left, STORED_AT), readLong(right, STORED_AT));
+    if (order == 0) {
+      order = Long.compare(readLong(left, ID_MSB), readLong(right, ID_MSB));
+    }
+    if (order == 0) {
+      order = Long.compare(readLong(left, ID_LSB), readLong(right, ID_LSB));
+    }
+    return order;
+  };
+
+  private final ByteBuffer buffer;
+  private final int offset;
+
+  private PaymentRecord(ByteBuffer buffer, int offset) {
+    this.buffer = buffer;
+    this.offset = offset;
+  }
+
+  public static PaymentRecord wrap(byte[] record) {
+    return new PaymentRecord(ByteBuffer.wrap(record), 0);
+  }
+
+  public static PaymentRecord wrap(ByteBuffer buffer, int offset) {
+    return new PaymentRecord(buffer, offset);
+  }
+
+  /**
+   * Returns a record holding only a stored time and id, which sorts under {@link #STORED_AT_ORDER}
+   * exactly where a payment with those values would. Used as a bound for range lookups.
+   */
+  public static byte[] key(long storedAt, long idMostSignificantBits,
+      long idLeastSignificantBits) {
+    byte[] key = new byte[SIZE];
+    LONG_VIEW.set(key, ID_MSB, idMostSignificantBits);
+    LONG_VIEW.set(key, ID_LSB, idLeastSignificantBits);
+    LONG_VIEW.set(key, STORED_AT, storedAt);
+    return key;
+  }
+
+  /**
+   * Packs the payment into a new record of {@link #length()} bytes.
+   *
+   * @throws IllegalArgumentException if the currency is not supported
+   */
+  public static byte[] encode(PaymentDetails payment, long storedAt) {
+    byte[] tail = tailOf(payment.getAuthorizationCode());
+    byte[] record = new byte[SIZE + tail.length];
+    encode(payment, storedAt, ByteBuffer.wrap(record), 0, tail);
+    return record;
+  }
+
+  /**
+   * Writes the payment into {@code buffer} at {@code offset} without changing its position. The
+   * buffer needs room for the tail as well when the authorization code does not fit in the fixed
+   * part.
+   *
+   * @throws IllegalArgumentException if the currency is not supported
+   */
+  public static void encode(PaymentDetails payment, long storedAt, ByteBuffer buffer, int offset) {
+    encode(payment, storedAt, buffer, offset, tailOf(payment.getAuthorizationCode()));
+  }
+
+  /**
+   * Splits records stored back to back.
+   *
+   * @throws IllegalArgumentException if the last record is truncated
+   */
+  public static List<byte[]> split(byte[] records) {
+    ByteBuffer buffer = ByteBuffer.wrap(records);
+    List<byte[]> split = new ArrayList<>(records.length / SIZE);
+    int offset = 0;
+    while (offset < records.length) {
+      if (records.length - offset < SIZE) {
+        throw new IllegalArgumentException("Truncated payment record at offset " + offset);
+      }
+      int length = wrap(buffer, offset).length();
+      if (length < SIZE || length > records.length - offset) {
+        throw new IllegalArgumentException("Truncated payment record at offset " + offset);
+      }
+      byte[] record = new byte[length];
+      System.arraycopy(records, offset, record, 0, length);
+      split.add(record);
+      offset += length;
+    }
+    return split;
+  }
+
+  private static void encode(PaymentDetails payment, long storedAt, ByteBuffer buffer, int offset,
+      byte[] tail) {
+    UUID id = payment.getId();
+    buffer.putLong(offset + ID_MSB, id.getMostSignificantBits());
+    buffer.putLong(offset + ID_LSB, id.getLeastSignificantBits());
+    buffer.putLong(offset + STORED_AT, storedAt);
+    buffer.put(offset + STATUS, ordinalOf(payment.getStatus()));
+    buffer.put(offset + CURRENCY, ordinalOf(payment.getCurrency()));
+    buffer.putInt(offset + CARD_NUMBER_LAST_FOUR, payment.getCardNumberLastFour());
+    buffer.putInt(offset + EXPIRY_MONTH, payment.getExpiryMonth());
+    buffer.putInt(offset + EXPIRY_YEAR, payment.getExpiryYear());
+    buffer.putInt(offset + AMOUNT, payment.getAmount());
+    encodeAuthorizationCode(payment.getAuthorizationCode(), tail, buffer, offset);
+  }
+
+  /**
+   * Size of the packed record in bytes: {@value #SIZE} plus the tail, if any.
+   */
+  public int length() {
+    if (buffer.get(offset + AUTH_CODE_ENCODING) != AUTH_CODE_TAIL) {
+      return SIZE;
+    }
+    return SIZE + buffer.getInt(offset + AUTH_CODE);
+  }
+
+  /**
+   * Copies the packed record, {@link #length()} bytes, into {@code target} at
+   * {@code targetOffset}.
+   */
+  public void copyTo(byte[] target, int targetOffset) {
+    buffer.get(offset, target, targetOffset, length());
+  }
+
+  public UUID getId() {
+    return new UUID(getIdMostSignificantBits(), getIdLeastSignificantBits());
+  }
+
+  public long getIdMostSignificantBits() {
+    return buffer.getLong(offset + ID_MSB);
+  }
+
+  public long getIdLeastSignificantBits() {
+    return buffer.getLong(offset + ID_LSB);
+  }
+
+  public long getStoredAt() {
+    return buffer.getLong(offset + STORED_AT);
+  }
+
+  public String getAuthorizationCode() {
+    switch (buffer.get(offset + AUTH_CODE_ENCODING)) {
+      case AUTH_CODE_UUID:
+        return new UUID(buffer.getLong(offset + AUTH_CODE),
+            buffer.getLong(offset + AUTH_CODE + 8)).toString();
+      case AUTH_CODE_ASCII:
+        byte[] ascii = new byte[buffer.get(offset + AUTH_CODE_LENGTH)];
+        for (int i = 0; i < ascii.length; i++) {
+          ascii[i] = buffer.get(offset + AUTH_CODE + i);
+        }
+        return new String(ascii, StandardCharsets.US_ASCII);
+      case AUTH_CODE_TAIL:
+        byte[] utf8 = new byte[buffer.getInt(offset + AUTH_CODE)];
+        buffer.get(offset + SIZE, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+      default:
+        return null;
+    }
+  }
+
+  public PaymentStatus getStatus() {
+    int ordinal = buffer.get(offset + STATUS);
+    return ordinal == 0 ? null : STATUSES[ordinal - 1];
+  }
+
+  public Currency getCurrencyCode() {
+    int ordinal = buffer.get(offset + CURRENCY);
+    return ordinal == 0 ? null : CURRENCIES[ordinal - 1];
+  }
+
+  public String getCurrency() {
+    Currency currency = getCurrencyCode();
+    return currency == null ? null : currency.getValue();
+  }
+
+  public int getCardNumberLastFour() {
+    return buffer.getInt(offset + CARD_NUMBER_LAST_FOUR);
+  }
+
+  public int getExpiryMonth() {
+    return buffer.getInt(offset + EXPIRY_MONTH);
+  }
+
+  public int getExpiryYear() {
+    return buffer.getInt(offset + EXPIRY_YEAR);
+  }
+
+  public int getAmount() {
+    return buffer.getInt(offset + AMOUNT);
+  }
+
+  public PaymentDetails toPaymentDetails() {
+    return new PaymentDetails(getId(), getAuthorizationCode(), getStatus(),
+        getCardNumberLastFour(), getExpiryMonth(), getExpiryYear(), getCurrency(), getAmount());
+  }
+
+  private static long readLong(byte[] record, int offset) {
+    return (long) LONG_VIEW.get(record, offset);
+  }
+
+  private static byte ordinalOf(PaymentStatus status) {
+    return status == null ? 0 : (byte) (status.ordinal() + 1);
+  }
+
+  private static byte ordinalOf(String currency) {
+    if (currency == null) {
+      return 0;
+    }
+    Currency code = Currency.fromValue(currency);
+    if (code == null) {
+      throw new IllegalArgumentException("Unsupported currency: " + currency);
+    }
+    return (byte) (code.ordinal() + 1);
+  }
+
+  /**
+   * Returns the tail needed for {@code code}: empty when it fits in the fixed part.
+   */
+  private static byte[] tailOf(String code) {
+    if (code == null || parseCanonicalUuid(code) != null
+        || (code.length() <= AUTH_CODE_BYTES
+            && StandardCharsets.US_ASCII.newEncoder().canEncode(code))) {
+      return new byte[0];
+    }
+    return code.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static void encodeAuthorizationCode(String code, byte[] tail, ByteBuffer buffer,
+      int offset) {
+    if (tail.length > 0) {
+      buffer.put(offset + AUTH_CODE_ENCODING, AUTH_CODE_TAIL);
+      buffer.put(offset + AUTH_CODE_LENGTH, (byte) 0);
+      buffer.putInt(offset + AUTH_CODE, tail.length);
+      for (int i = Integer.BYTES; i < AUTH_CODE_BYTES; i++) {
+        buffer.put(offset + AUTH_CODE + i, (byte) 0);
+      }
+      buffer.put(offset + SIZE, tail);
+      return;
+    }
+    if (code == null) {
+      buffer.put(offset + AUTH_CODE_ENCODING, AUTH_CODE_NONE);
+      buffer.put(offset + AUTH_CODE_LENGTH, (byte) 0);
+      buffer.putLong(offset + AUTH_CODE, 0L);
+      buffer.putLong(offset + AUTH_CODE + 8, 0L);
+      return;
+    }
+    UUID uuid = parseCanonicalUuid(code);
+    if (uuid != null) {
+      buffer.put(offset + AUTH_CODE_ENCODING, AUTH_CODE_UUID);
+      buffer.put(offset + AUTH_CODE_LENGTH, (byte) AUTH_CODE_BYTES);
+      buffer.putLong(offset + AUTH_CODE, uuid.getMostSignificantBits());
+      buffer.putLong(offset + AUTH_CODE + 8, uuid.getLeastSignificantBits());
+      return;
+    }
+    buffer.put(offset + AUTH_CODE_ENCODING, AUTH_CODE_ASCII);
+    buffer.put(offset + AUTH_CODE_LENGTH, (byte) code.length());
+    for (int i = 0; i < AUTH_CODE_BYTES; i++) {
+      buffer.put(offset + AUTH_CODE + i, i < code.length() ? (byte) code.charAt(i) : 0);
+    }
+  }
+
+  private static UUID parseCanonicalUuid(String code) {
+    if (code.length() != 36) {
+      return null;
+    }
+    try {
+      UUID uuid = UUID.fromString(code);
+      return uuid.toString().equals(code) ? uuid : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -1,22 +1,357 @@
 package com.checkout.payment.gateway.repository;
 
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
 import com.checkout.payment.gateway.model.PaymentDetails;
-import java.util.HashMap;
+import com.checkout.payment.gateway.replication.ReplicationLog;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.NavigableSet;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+/**
+ * In-memory payment store shared by all request threads.
+ * <p>
+ * Backed by a {@link ConcurrentHashMap}, which locks per hash bin on writes and never blocks
+ * readers. The map is pre-sized from {@code payments.repository.initial-capacity} so that traffic
+ * spikes do not trigger a resize.
+ * <p>
+ * Retention is bounded by {@code payments.repository.max-entries} and
+ * {@code payments.repository.time-to-live}: the oldest payments are evicted first, and payments
+ * older than the time-to-live are no longer returned. A value of zero disables either limit.
+ * <p>
+ * Payments are held in the packed {@link PaymentRecord} format, one byte array per payment,
+ * rather than as {@link PaymentDetails} object graphs. When a {@link PaymentJournal} is configured,
+ * each payment is journaled before it is stored and the store is rebuilt from the journal on
+ * startup. On a replication leader, each payment is also appended to the {@link ReplicationLog}
+ * once stored.
+ * <p>
+ * Secondary indexes keep the same byte arrays in {@link PaymentRecord#STORED_AT_ORDER}: one over
+ * all payments and one per status and per currency. They are updated on every write and eviction,
+ * and back {@link #find(PaymentQuery)}.
+ */
 @Repository
 public class PaymentsRepository {
 
-  private final HashMap<UUID, PaymentDetails> payments = new HashMap<>();
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentsRepository.class);
+
+  private final ConcurrentMap<UUID, byte[]> payments;
+  private final Queue<byte[]> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final int maxEntries;
+  private final long timeToLiveMillis;
+  private final AtomicLong evictedCount = new AtomicLong();
+  private final AtomicLong expiredCount = new AtomicLong();
+  private final PaymentJournal journal;
+  private final ReplicationLog replicationLog;
+  private final NavigableSet<byte[]> byStoredAt = newIndex();
+  private final NavigableSet<byte[]>[] byStatus = newIndexes(PaymentStatus.values().length);
+  private final NavigableSet<byte[]>[] byCurrency = newIndexes(Currency.values().length);
+  private final AtomicLongArray statusCounts = new AtomicLongArray(PaymentStatus.values().length);
+  private final AtomicLongArray currencyCounts = new AtomicLongArray(Currency.values().length);
+
+  public PaymentsRepository(
+      @Value("${payments.repository.initial-capacity:65536}") int initialCapacity,
+      @Value("${payments.repository.max-entries:1000000}") int maxEntries,
+      @Value("${payments.repository.time-to-live:0s}") Duration timeToLive,
+      Optional<PaymentJournal> journal) {
+    this(initialCapacity, maxEntries, timeToLive, journal, Optional.empty());
+  }
+
+  @Autowired
+  public PaymentsRepository(
+      @Value("${payments.repository.initial-capacity:65536}") int initialCapacity,
+      @Value("${payments.repository.max-entries:1000000}") int maxEntries,
+      @Value("${payments.repository.time-to-live:0s}") Duration timeToLive,
+      Optional<PaymentJournal> journal,
+      Optional<ReplicationLog> replicationLog) {
+    this.payments = new ConcurrentHashMap<>(initialCapacity);
+    this.maxEntries = maxEntries;
+    this.timeToLiveMillis = timeToLive.toMillis();
+    this.journal = journal.orElse(null);
+    this.replicationLog = replicationLog.orElse(null);
+  }
+
+  @PostConstruct
+  public void replayJournal() {
+    if (journal == null) {
+      return;
+    }
+    long start = System.nanoTime();
+    long now = System.currentTimeMillis();
+    for (byte[] record : journal.replay()) {
+      PaymentRecord view = PaymentRecord.wrap(record);
+      if (!isExpired(view, now)) {
+        store(view.getId(), record);
+      }
+    }
+    evictOverflow();
+    LOG.info("Restored {} payments from journal in {} ms", payments.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
 
   public void add(PaymentDetails payment) {
-    payments.put(payment.getId(), payment);
+    long now = System.currentTimeMillis();
+    byte[] record = PaymentRecord.encode(payment, now);
+    if (journal != null) {
+      journal.append(record);
+    }
+    store(payment.getId(), record);
+    replicate(record);
+    evictExpired(now);
+    evictOverflow();
+  }
+
+  /**
+   * Stores a payment received from another node, keeping the time it was first stored. Payments
+   * already held or past their time-to-live are skipped.
+   *
+   * @return whether the payment was stored
+   */
+  public boolean addRecord(byte[] record) {
+    PaymentRecord view = PaymentRecord.wrap(record);
+    long now = System.currentTimeMillis();
+    UUID id = view.getId();
+    if (isExpired(view, now) || payments.containsKey(id)) {
+      return false;
+    }
+    if (journal != null) {
+      journal.append(record);
+    }
+    store(id, record);
+    replicate(record);
+    evictExpired(now);
+    evictOverflow();
+    return true;
   }
 
   public Optional<PaymentDetails> get(UUID id) {
-    return Optional.ofNullable(payments.get(id));
+    return getRecord(id).map(PaymentRecord::toPaymentDetails);
+  }
+
+  /**
+   * Returns a view over the stored payment without materializing a {@link PaymentDetails}.
+   */
+  public Optional<PaymentRecord> getRecord(UUID id) {
+    byte[] record = payments.get(id);
+    if (record == null) {
+      return Optional.empty();
+    }
+    PaymentRecord view = PaymentRecord.wrap(record);
+    if (isExpired(view, System.currentTimeMillis())) {
+      if (payments.remove(id, record)) {
+        unindex(record);
+        expiredCount.incrementAndGet();
+      }
+      return Optional.empty();
+    }
+    return Optional.of(view);
+  }
+
+  /**
+   * Returns up to {@code query.getLimit()} live payments matching the query, oldest first. Reads
+   * the narrowest index that covers the query's status or currency and filters on the rest.
+   */
+  public List<PaymentRecord> find(PaymentQuery query) {
+    NavigableSet<byte[]> index = selectIndex(query.getStatus(), query.getCurrency());
+    byte[] lower = PaymentRecord.key(query.getFromMillis(), Long.MIN_VALUE, Long.MIN_VALUE);
+    byte[] upper = PaymentRecord.key(query.getToMillis(), Long.MIN_VALUE, Long.MIN_VALUE);
+    boolean lowerInclusive = true;
+    byte[] after = query.getAfter();
+    if (after != null && PaymentRecord.STORED_AT_ORDER.compare(after, lower) >= 0) {
+      lower = after;
+      lowerInclusive = false;
+    }
+    if (PaymentRecord.STORED_AT_ORDER.compare(lower, upper) >= 0) {
+      return List.of();
+    }
+
+    long now = System.currentTimeMillis();
+    List<PaymentRecord> matches = new ArrayList<>(Math.min(query.getLimit(), 1024));
+    for (byte[] record : index.subSet(lower, lowerInclusive, upper, false)) {
+      PaymentRecord view = PaymentRecord.wrap(record);
+      if ((query.getStatus() == null || view.getStatus() == query.getStatus())
+          && (query.getCurrency() == null || view.getCurrencyCode() == query.getCurrency())
+          && !isExpired(view, now)) {
+        matches.add(view);
+        if (matches.size() == query.getLimit()) {
+          break;
+        }
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Iterates over every live payment, oldest first. The iterator walks the time index in place and
+   * is weakly consistent: it never fails on concurrent writes and holds no copy of the store.
+   */
+  public Iterator<PaymentRecord> scan() {
+    Iterator<byte[]> records = byStoredAt.iterator();
+    return new Iterator<>() {
+      private PaymentRecord next;
+
+      @Override
+      public boolean hasNext() {
+        long now = System.currentTimeMillis();
+        while (next == null && records.hasNext()) {
+          PaymentRecord candidate = PaymentRecord.wrap(records.next());
+          if (!isExpired(candidate, now)) {
+            next = candidate;
+          }
+        }
+        return next != null;
+      }
+
+      @Override
+      public PaymentRecord next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        PaymentRecord record = next;
+        next = null;
+        return record;
+      }
+    };
+  }
+
+  public int size() {
+    return payments.size();
+  }
+
+  public long getEvictedCount() {
+    return evictedCount.get();
   }
 
+  public long getExpiredCount() {
+    return expiredCount.get();
+  }
+
+  private void replicate(byte[] record) {
+    if (replicationLog != null) {
+      replicationLog.append(record);
+    }
+  }
+
+  private void evictExpired(long now) {
+    if (timeToLiveMillis <= 0) {
+      return;
+    }
+    byte[] oldest;
+    while ((oldest = insertionOrder.peek()) != null) {
+      PaymentRecord record = PaymentRecord.wrap(oldest);
+      if (!isExpired(record, now)) {
+        return;
+      }
+      if (insertionOrder.remove(oldest)) {
+        unindex(oldest);
+        if (payments.remove(record.getId(), oldest)) {
+          expiredCount.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  private void evictOverflow() {
+    if (maxEntries <= 0) {
+      return;
+    }
+    while (payments.size() > maxEntries) {
+      byte[] oldest = insertionOrder.poll();
+      if (oldest == null) {
+        return;
+      }
+      unindex(oldest);
+      if (payments.remove(PaymentRecord.wrap(oldest).getId(), oldest)) {
+        evictedCount.incrementAndGet();
+      }
+    }
+  }
+
+  private void store(UUID id, byte[] record) {
+    byte[] previous = payments.put(id, record);
+    if (previous != null) {
+      unindex(previous);
+    }
+    index(record);
+    insertionOrder.add(record);
+  }
+
+  private void index(byte[] record) {
+    byStoredAt.add(record);
+    PaymentRecord view = PaymentRecord.wrap(record);
+    if (view.getStatus() != null) {
+      int status = view.getStatus().ordinal();
+      byStatus[status].add(record);
+      statusCounts.incrementAndGet(status);
+    }
+    if (view.getCurrencyCode() != null) {
+      int currency = view.getCurrencyCode().ordinal();
+      byCurrency[currency].add(record);
+      currencyCounts.incrementAndGet(currency);
+    }
+  }
+
+  private void unindex(byte[] record) {
+    if (!byStoredAt.remove(record)) {
+      return;
+    }
+    PaymentRecord view = PaymentRecord.wrap(record);
+    if (view.getStatus() != null && byStatus[view.getStatus().ordinal()].remove(record)) {
+      statusCounts.decrementAndGet(view.getStatus().ordinal());
+    }
+    if (view.getCurrencyCode() != null
+        && byCurrency[view.getCurrencyCode().ordinal()].remove(record)) {
+      currencyCounts.decrementAndGet(view.getCurrencyCode().ordinal());
+    }
+  }
+
+  private NavigableSet<byte[]> selectIndex(PaymentStatus status, Currency currency) {
+    if (status != null && currency != null) {
+      return statusCounts.get(status.ordinal()) <= currencyCounts.get(currency.ordinal())
+          ? byStatus[status.ordinal()]
+          : byCurrency[currency.ordinal()];
+    }
+    if (status != null) {
+      return byStatus[status.ordinal()];
+    }
+    if (currency != null) {
+      return byCurrency[currency.ordinal()];
+    }
+    return byStoredAt;
+  }
+
+  private static NavigableSet<byte[]> newIndex() {
+    return new ConcurrentSkipListSet<>(PaymentRecord.STORED_AT_ORDER);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static NavigableSet<byte[]>[] newIndexes(int count) {
+    NavigableSet<byte[]>[] indexes = new NavigableSet[count];
+    for (int i = 0; i < count; i++) {
+      indexes[i] = newIndex();
+    }
+    return indexes;
+  }
+
+  private boolean isExpired(PaymentRecord record, long now) {
+    return timeToLiveMillis > 0 && now - record.getStoredAt() >= timeToLiveMillis;
+  }
 }
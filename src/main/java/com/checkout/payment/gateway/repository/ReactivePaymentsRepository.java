@@ -0,0 +1,30 @@
+package com.checkout.payment.gateway.repository;
+
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive view of {@link PaymentsRepository} for the {@code reactive} profile.
+ * <p>
+ * Lookups are in-memory and never block, so they run on the subscribing thread rather than being
+ * shifted to another scheduler. Nothing is read until subscription.
+ */
+@Component
+public class ReactivePaymentsRepository {
+
+  private final PaymentsRepository repository;
+
+  public ReactivePaymentsRepository(PaymentsRepository repository) {
+    this.repository = repository;
+  }
+
+  public Mono<PaymentRecord> getRecord(UUID id) {
+    return Mono.defer(() -> Mono.justOrEmpty(repository.getRecord(id)));
+  }
+
+  public Flux<PaymentRecord> find(PaymentQuery query) {
+    return Flux.defer(() -> Flux.fromIterable(repository.find(query)));
+  }
+}
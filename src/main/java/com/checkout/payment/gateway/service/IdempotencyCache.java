@@ -0,0 +1,144 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.exception.IdempotencyKeyReusedException;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the outcome of payments submitted with an idempotency key.
+ * <p>
+ * The first request for a key starts the authorization; every later or concurrent request with
+ * the same key shares its result instead of authorizing again. Failed authorizations are
+ * forgotten so the client can retry them. The cache holds at most
+ * {@code payments.idempotency.max-entries} completed keys, each for
+ * {@code payments.idempotency.time-to-live}, plus the keys whose authorization is in flight.
+ * <p>
+ * A key is bound to the request that first used it through a fingerprint: an HMAC-SHA256 of the
+ * card number, expiry, currency and amount, keyed with a random secret generated at startup. The
+ * secret never leaves the process, so the fingerprint cannot be brute-forced back into a card
+ * number. The CVV is not part of it. A request that reuses a live key with a different
+ * fingerprint fails with {@link IdempotencyKeyReusedException}.
+ */
+@Component
+public class IdempotencyCache {
+
+  private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final int maxEntries;
+  private final long timeToLiveMillis;
+  private final SecretKeySpec fingerprintKey;
+
+  public IdempotencyCache(
+      @Value("${payments.idempotency.max-entries:100000}") int maxEntries,
+      @Value("${payments.idempotency.time-to-live:24h}") Duration timeToLive) {
+    this.maxEntries = maxEntries;
+    this.timeToLiveMillis = timeToLive.toMillis();
+    byte[] secret = new byte[32];
+    new SecureRandom().nextBytes(secret);
+    this.fingerprintKey = new SecretKeySpec(secret, "HmacSHA256");
+  }
+
+  public CompletableFuture<PaymentDetails> getOrProcess(String key, PostPaymentRequest request,
+      Supplier<CompletableFuture<PaymentDetails>> processing) {
+    long now = System.currentTimeMillis();
+    byte[] fingerprint = fingerprint(request);
+    Entry[] created = new Entry[1];
+    Entry entry = entries.compute(key, (k, current) -> {
+      if (current != null && !isExpired(current, now)) {
+        return current;
+      }
+      created[0] = new Entry(k, fingerprint, now);
+      return created[0];
+    });
+    if (entry != created[0]) {
+      if (!MessageDigest.isEqual(entry.fingerprint, fingerprint)) {
+        return CompletableFuture.failedFuture(new IdempotencyKeyReusedException(
+            "Idempotency key " + key + " was used for a different payment"));
+      }
+      return entry.result;
+    }
+
+    insertionOrder.add(entry);
+    evict(now);
+    try {
+      processing.get().whenComplete((payment, error) -> {
+        if (error != null) {
+          entries.remove(key, entry);
+          entry.result.completeExceptionally(error);
+        } else {
+          entry.result.complete(payment);
+        }
+      });
+    } catch (RuntimeException e) {
+      entries.remove(key, entry);
+      entry.result.completeExceptionally(e);
+    }
+    return entry.result;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Evicts the oldest completed entries. An authorization still in flight is kept even beyond
+   * {@code max-entries}, since a retry would otherwise start a second one.
+   */
+  private void evict(long now) {
+    for (Iterator<Entry> oldest = insertionOrder.iterator(); oldest.hasNext(); ) {
+      Entry entry = oldest.next();
+      if (!isExpired(entry, now) && entries.size() <= maxEntries) {
+        return;
+      }
+      if (entry.result.isDone() && insertionOrder.remove(entry)) {
+        entries.remove(entry.key, entry);
+      }
+    }
+  }
+
+  private byte[] fingerprint(PostPaymentRequest request) {
+    Mac mac;
+    try {
+      mac = Mac.getInstance("HmacSHA256");
+      mac.init(fingerprintKey);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("HmacSHA256 is not available", e);
+    }
+    String fields = request.getCardNumber() + '|' + request.getExpiryMonth() + '|'
+        + request.getExpiryYear() + '|' + request.getCurrency() + '|' + request.getAmount();
+    return mac.doFinal(fields.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private boolean isExpired(Entry entry, long now) {
+    return now - entry.createdAt >= timeToLiveMillis;
+  }
+
+  private static final class Entry {
+    private final String key;
+    private final byte[] fingerprint;
+    private final long createdAt;
+    private final CompletableFuture<PaymentDetails> result = new CompletableFuture<>();
+
+    private Entry(String key, byte[] fingerprint, long createdAt) {
+      this.key = key;
+      this.fingerprint = fingerprint;
+      this.createdAt = createdAt;
+    }
+  }
+}
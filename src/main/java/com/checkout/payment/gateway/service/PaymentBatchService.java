@@ -0,0 +1,132 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.model.PaymentDetails;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fans the items of a batch submission out to the bank with bounded parallelism.
+ * <p>
+ * At most {@code payments.batch.parallelism} items of one batch are in flight at a time; the next
+ * item starts as soon as one completes. Items can be added to an {@link #open() open} batch while
+ * the submission is still being read, so the first ones are authorized before the last arrive.
+ * Results are returned in submission order.
+ */
+@Service
+public class PaymentBatchService {
+
+  private final int parallelism;
+
+  public PaymentBatchService(@Value("${payments.batch.parallelism:16}") int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  public Batch open() {
+    return new Batch(parallelism);
+  }
+
+  /**
+   * One batch submission. Items are added by a single reading thread and start in the order they
+   * are added.
+   */
+  public static final class Batch {
+
+    private final int parallelism;
+    private final List<CompletableFuture<PaymentDetails>> results = new ArrayList<>();
+    private final Queue<Pending> waiting = new ArrayDeque<>();
+    private int inFlight;
+
+    private Batch(int parallelism) {
+      this.parallelism = parallelism;
+    }
+
+    /**
+     * Starts {@code payment} now if fewer than {@code parallelism} items are in flight, otherwise
+     * once one of them completes.
+     */
+    public CompletableFuture<PaymentDetails> add(
+        Supplier<CompletableFuture<PaymentDetails>> payment) {
+      CompletableFuture<PaymentDetails> result = new CompletableFuture<>();
+      results.add(result);
+      synchronized (this) {
+        if (inFlight >= parallelism) {
+          waiting.add(new Pending(payment, result));
+          return result;
+        }
+        inFlight++;
+      }
+      start(payment, result);
+      return result;
+    }
+
+    public int size() {
+      return results.size();
+    }
+
+    public List<CompletableFuture<PaymentDetails>> results() {
+      return results;
+    }
+
+    private void start(Supplier<CompletableFuture<PaymentDetails>> payment,
+        CompletableFuture<PaymentDetails> result) {
+      // Items that complete immediately (e.g. rejected by validation) are handled in this loop
+      // rather than by recursion so that long runs of them cannot exhaust the stack.
+      while (true) {
+        CompletableFuture<PaymentDetails> started;
+        try {
+          started = payment.get();
+        } catch (RuntimeException e) {
+          started = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<PaymentDetails> current = result;
+        if (!started.isDone()) {
+          started.whenComplete((details, error) -> {
+            complete(current, details, error);
+            Pending next = nextOrRelease();
+            if (next != null) {
+              start(next.payment, next.result);
+            }
+          });
+          return;
+        }
+        started.whenComplete((details, error) -> complete(current, details, error));
+        Pending next = nextOrRelease();
+        if (next == null) {
+          return;
+        }
+        payment = next.payment;
+        result = next.result;
+      }
+    }
+
+    /**
+     * Hands the finished item's slot to the next waiting item, or frees it when none is waiting.
+     */
+    private synchronized Pending nextOrRelease() {
+      Pending next = waiting.poll();
+      if (next == null) {
+        inFlight--;
+      }
+      return next;
+    }
+  }
+
+  private static void complete(CompletableFuture<PaymentDetails> result, PaymentDetails payment,
+      Throwable error) {
+    if (error != null) {
+      result.completeExceptionally(error);
+    } else {
+      result.complete(payment);
+    }
+  }
+
+  private record Pending(Supplier<CompletableFuture<PaymentDetails>> payment,
+                         CompletableFuture<PaymentDetails> result) {
+  }
+}
@@ -0,0 +1,99 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.repository.PaymentRecord;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import org.springframework.stereotype.Service;
+
+/**
+ * Streams every stored payment, oldest first, in the fields of a GET /payment/{id} response.
+ * <p>
+ * Payments are read one at a time from {@link PaymentsRepository#scan()} and written through a
+ * fixed-size buffer, so memory use does not depend on how many payments are stored. The caller's
+ * stream is flushed when the buffer fills and at the end, not per payment.
+ */
+@Service
+public class PaymentExportService {
+
+  public enum Format {
+    NDJSON, CSV
+  }
+
+  private static final String CSV_HEADER =
+      "id,status,cardNumberLastFour,expiryMonth,expiryYear,currency,amount\n";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final PaymentsRepository paymentsRepository;
+  private final ObjectMapper objectMapper;
+
+  public PaymentExportService(PaymentsRepository paymentsRepository, ObjectMapper objectMapper) {
+    this.paymentsRepository = paymentsRepository;
+    this.objectMapper = objectMapper;
+  }
+
+  public void export(Format format, OutputStream output) throws IOException {
+    if (format == Format.CSV) {
+      writeCsv(output);
+    } else {
+      writeNdjson(output);
+    }
+  }
+
+  private void writeNdjson(OutputStream output) throws IOException {
+    try (JsonGenerator generator =
+        objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(null);
+      Iterator<PaymentRecord> payments = paymentsRepository.scan();
+      while (payments.hasNext()) {
+        PaymentRecord payment = payments.next();
+        generator.writeStartObject();
+        generator.writeStringField("id", payment.getId().toString());
+        generator.writeStringField("status", payment.getStatus().getName());
+        generator.writeNumberField("cardNumberLastFour", payment.getCardNumberLastFour());
+        generator.writeNumberField("expiryMonth", payment.getExpiryMonth());
+        generator.writeNumberField("expiryYear", payment.getExpiryYear());
+        generator.writeStringField("currency", payment.getCurrency());
+        generator.writeNumberField("amount", payment.getAmount());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+      }
+    }
+  }
+
+  private void writeCsv(OutputStream output) throws IOException {
+    Writer writer = new BufferedWriter(
+        new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+    writer.write(CSV_HEADER);
+    Iterator<PaymentRecord> payments = paymentsRepository.scan();
+    while (payments.hasNext()) {
+      PaymentRecord payment = payments.next();
+      // Every field is a UUID, an enum name, a currency code or a number, so none needs quoting
+      writer.write(payment.getId().toString());
+      writer.write(',');
+      writer.write(payment.getStatus().getName());
+      writer.write(',');
+      writer.write(Integer.toString(payment.getCardNumberLastFour()));
+      writer.write(',');
+      writer.write(Integer.toString(payment.getExpiryMonth()));
+      writer.write(',');
+      writer.write(Integer.toString(payment.getExpiryYear()));
+      writer.write(',');
+      writer.write(payment.getCurrency());
+      writer.write(',');
+      writer.write(Integer.toString(payment.getAmount()));
+      writer.write('\n');
+    }
+    writer.flush();
+  }
+
+}
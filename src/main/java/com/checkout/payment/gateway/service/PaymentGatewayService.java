@@ -1,116 +1,172 @@
 package com.checkout.payment.gateway.service;
 
+import com.checkout.payment.gateway.client.AcquirerRouter;
+import com.checkout.payment.gateway.client.BankGatewayResponse;
+import com.checkout.payment.gateway.cluster.PaymentCluster;
 import com.checkout.payment.gateway.enums.PaymentStatus;
-import com.checkout.payment.gateway.exception.BankGatewayException;
 import com.checkout.payment.gateway.exception.EventProcessingException;
+import com.checkout.payment.gateway.exception.ReadOnlyReplicaException;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
 import com.checkout.payment.gateway.model.PaymentDetails;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.replication.ReplicationRole;
+import com.checkout.payment.gateway.repository.PaymentQuery;
+import com.checkout.payment.gateway.repository.PaymentRecord;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import com.checkout.payment.gateway.repository.ReactivePaymentsRepository;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Service
 public class PaymentGatewayService {
 
   private static final Logger LOG = LoggerFactory.getLogger(PaymentGatewayService.class);
-  private static final String BASE_PATH = "http://localhost:8080";
-  private static final String PAYMENT_ENDPOINT = "/payments";
+  private static final EventProcessingException PAYMENT_NOT_FOUND =
+      new EventProcessingException("Invalid ID");
+  private static final ReadOnlyReplicaException READ_ONLY =
+      new ReadOnlyReplicaException("Payments are stored on the replication leader");
 
   private final PaymentsRepository paymentsRepository;
-  private final HttpClient httpClient;
-  private final ObjectMapper objectMapper;
+  private final ReactivePaymentsRepository reactivePaymentsRepository;
+  private final AcquirerRouter acquirerRouter;
+  private final PaymentCluster paymentCluster;
+  private final IdempotencyCache idempotencyCache;
+  private final PaymentMetrics metrics;
+  private final Executor storageExecutor;
+  private final boolean readOnly;
 
-  public PaymentGatewayService(PaymentsRepository paymentsRepository) {
+  public PaymentGatewayService(PaymentsRepository paymentsRepository,
+      ReactivePaymentsRepository reactivePaymentsRepository, AcquirerRouter acquirerRouter,
+      PaymentCluster paymentCluster, IdempotencyCache idempotencyCache, PaymentMetrics metrics,
+      @Qualifier("paymentStorageExecutor") Executor storageExecutor,
+      @Value("${payments.replication.role:none}") ReplicationRole replicationRole) {
     this.paymentsRepository = paymentsRepository;
-    this.httpClient = HttpClient.newHttpClient();
-    this.objectMapper = new ObjectMapper();
+    this.reactivePaymentsRepository = reactivePaymentsRepository;
+    this.acquirerRouter = acquirerRouter;
+    this.paymentCluster = paymentCluster;
+    this.idempotencyCache = idempotencyCache;
+    this.metrics = metrics;
+    this.storageExecutor = storageExecutor;
+    this.readOnly = replicationRole == ReplicationRole.FOLLOWER;
   }
 
-  public PaymentDetails getPaymentById(UUID id) {
+  /**
+   * Reads the payment from the local store, or from the cluster node that holds it when
+   * {@link PaymentCluster clustering} is enabled. Local hits and misses the cluster can rule out
+   * complete straight away; only a miss that is forwarded to another node waits.
+   */
+  public CompletableFuture<PaymentRecord> getPaymentById(UUID id) {
     LOG.debug("Requesting access to payment with ID {}", id);
-    return paymentsRepository.get(id).orElseThrow(() -> new EventProcessingException("Invalid ID"));
+    Optional<PaymentRecord> payment = paymentsRepository.getRecord(id);
+    if (payment.isPresent()) {
+      return CompletableFuture.completedFuture(payment.get());
+    }
+    return paymentCluster.fetchRemote(id)
+        .thenApply(remote -> remote.orElseThrow(() -> PAYMENT_NOT_FOUND));
   }
 
-  public PaymentDetails processPayment(PostPaymentRequest paymentRequest) {
-    BankGatewayResponse bankResponse = sendPaymentToBankGateway(paymentRequest);
-    
-    PaymentDetails paymentDetails = new PaymentDetails(
-        UUID.randomUUID(),
-        bankResponse.authorized ? bankResponse.authorizationCode : null,
-        bankResponse.authorized ? PaymentStatus.AUTHORIZED : PaymentStatus.REJECTED,
-        paymentRequest.getCardNumberLastFour(),
-        paymentRequest.getExpiryMonth(),
-        paymentRequest.getExpiryYear(),
-        paymentRequest.getCurrency(),
-        paymentRequest.getAmount()
-    );
-    
-    paymentsRepository.add(paymentDetails);
-    return paymentDetails;
+  public Mono<PaymentRecord> getPaymentByIdReactive(UUID id) {
+    return reactivePaymentsRepository.getRecord(id)
+        .switchIfEmpty(Mono.fromFuture(() -> paymentCluster.fetchRemote(id))
+            .flatMap(Mono::justOrEmpty))
+        .switchIfEmpty(Mono.error(PAYMENT_NOT_FOUND));
   }
 
-  private BankGatewayResponse sendPaymentToBankGateway(PostPaymentRequest paymentRequest) {
-    try {
-      String requestBody = objectMapper.writeValueAsString(createBankPaymentRequest(paymentRequest));
-      
-      HttpRequest request = HttpRequest.newBuilder()
-          .uri(URI.create(BASE_PATH + PAYMENT_ENDPOINT))
-          .header("Content-Type", "application/json")
-          .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-          .build();
+  public List<PaymentRecord> findPayments(PaymentQuery query) {
+    LOG.debug("Searching payments by status {} and currency {}", query.getStatus(),
+        query.getCurrency());
+    return paymentsRepository.find(query);
+  }
 
-      HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+  public Flux<PaymentRecord> findPaymentsReactive(PaymentQuery query) {
+    return reactivePaymentsRepository.find(query);
+  }
 
-      return getValidatedResponseFromBankGateway(response);
-    } catch (BankGatewayException e) {
+  public PaymentDetails processPayment(PostPaymentRequest paymentRequest) {
+    try {
+      return processPaymentAsync(paymentRequest).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
       throw e;
-    } catch (Exception e) {
-      // Only catch HTTP communication errors (network, serialization, etc.)
-      throw new BankGatewayException("Error communicating with bank gateway: " + e.getMessage());
     }
   }
 
-  private BankGatewayResponse getValidatedResponseFromBankGateway(HttpResponse<String> response) {
-    if (response.statusCode() != 200) {
-      throw new BankGatewayException("Error from bank gateway: " + response.statusCode() + " - " + response.body());
+  /**
+   * Authorizes the payment with the bank and stores the outcome, without blocking the caller.
+   * The outcome is stored on the storage executor, since storing may wait for the journal or a
+   * follower and must not hold up the threads that complete bank responses. Fails with
+   * {@link ReadOnlyReplicaException} on a replication follower.
+   */
+  public CompletableFuture<PaymentDetails> processPaymentAsync(PostPaymentRequest paymentRequest) {
+    if (readOnly) {
+      return CompletableFuture.failedFuture(READ_ONLY);
     }
+    long start = System.nanoTime();
+    metrics.paymentStarted();
+    return acquirerRouter.authorize(paymentRequest)
+        .thenApplyAsync(bankResponse -> storePayment(paymentRequest, bankResponse),
+            storageExecutor)
+        .whenComplete((payment, error) -> {
+          metrics.paymentCompleted();
+          metrics.recordStage(PaymentMetrics.Stage.TOTAL, System.nanoTime() - start);
+        });
+  }
 
-    try {
-      JsonNode jsonNode = objectMapper.readTree(response.body());
-      boolean authorized = jsonNode.get("authorized").asBoolean();
-      String authorizationCode = jsonNode.get("authorization_code").asText();
-      
-      return new BankGatewayResponse(authorized, authorizationCode);
-    } catch (Exception e) {
-      throw new BankGatewayException("Malformed response from bank gateway: " + response.body());
+  /**
+   * Like {@link #processPaymentAsync(PostPaymentRequest)}, but a repeated or concurrent request
+   * with the same idempotency key returns the payment of the first request instead of authorizing
+   * again. Reusing a key for a different payment fails with
+   * {@link com.checkout.payment.gateway.exception.IdempotencyKeyReusedException}. A {@code null}
+   * key disables deduplication.
+   */
+  public CompletableFuture<PaymentDetails> processPaymentAsync(PostPaymentRequest paymentRequest,
+      String idempotencyKey) {
+    if (idempotencyKey == null || readOnly) {
+      return processPaymentAsync(paymentRequest);
     }
+    return idempotencyCache.getOrProcess(idempotencyKey, paymentRequest,
+        () -> processPaymentAsync(paymentRequest));
   }
 
-  private Object createBankPaymentRequest(PostPaymentRequest paymentRequest) {
-    java.util.Map<String, Object> bankRequest = new java.util.HashMap<>();
-    bankRequest.put("card_number", paymentRequest.getCardNumber());
-    bankRequest.put("expiry_date", paymentRequest.getExpiryDate());
-    bankRequest.put("currency", paymentRequest.getCurrency());
-    bankRequest.put("amount", paymentRequest.getAmount());
-    bankRequest.put("cvv", paymentRequest.getCvv());
-    return bankRequest;
+  /**
+   * Reactive form of {@link #processPaymentAsync(PostPaymentRequest, String)}. The payment is
+   * authorized when the {@link Mono} is subscribed.
+   */
+  public Mono<PaymentDetails> processPaymentReactive(PostPaymentRequest paymentRequest,
+      String idempotencyKey) {
+    return Mono.fromFuture(() -> processPaymentAsync(paymentRequest, idempotencyKey));
   }
 
-  private static class BankGatewayResponse {
-    public final boolean authorized;
-    public final String authorizationCode;
-
-    public BankGatewayResponse(boolean authorized, String authorizationCode) {
-      this.authorized = authorized;
-      this.authorizationCode = authorizationCode;
-    }
+  private PaymentDetails storePayment(PostPaymentRequest paymentRequest,
+      BankGatewayResponse bankResponse) {
+    PaymentDetails paymentDetails = new PaymentDetails(
+        paymentCluster.newPaymentId(),
+        bankResponse.isAuthorized() ? bankResponse.getAuthorizationCode() : null,
+        bankResponse.isAuthorized() ? PaymentStatus.AUTHORIZED : PaymentStatus.REJECTED,
+        paymentRequest.getCardNumberLastFour(),
+        paymentRequest.getExpiryMonth(),
+        paymentRequest.getExpiryYear(),
+        paymentRequest.getCurrency(),
+        paymentRequest.getAmount()
+    );
+    
+    long start = System.nanoTime();
+    paymentsRepository.add(paymentDetails);
+    metrics.recordStage(PaymentMetrics.Stage.REPOSITORY, System.nanoTime() - start);
+    metrics.recordPayment(paymentDetails.getStatus(), paymentDetails.getCurrency());
+    return paymentDetails;
   }
 }
@@ -3,72 +3,139 @@ package com.checkout.payment.gateway.service;
 import com.checkout.payment.gateway.enums.Currency;
 import com.checkout.payment.gateway.exception.InvalidPaymentException;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
-import java.time.LocalDate;
-import java.util.Arrays;
+import java.time.Clock;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Checks a payment request in a single pass and reports every violation at once. The exception
+ * message is the first violation, in the order card number, expiry month, expiry year, expiry
+ * date, currency, CVV, amount.
+ * <p>
+ * The current month is cached and only recomputed from the {@link Clock} once the month has
+ * passed. With {@code payments.validation.luhn-check=true} card numbers must also pass the Luhn
+ * checksum.
+ */
 @Component
 public class PaymentValidationService {
 
-  public void validatePaymentRequest(PostPaymentRequest request) {
-    validateCardNumber(request.getCardNumber());
-    validateExpiryMonth(request.getExpiryMonth());
-    validateExpiryYear(request.getExpiryYear());
-    validateExpiryDate(request.getExpiryMonth(), request.getExpiryYear());
-    validateCurrency(request.getCurrency());
-    validateCvv(request.getCvv());
-    validateAmount(request.getAmount());
+  private static final int MAX_YEARS_AHEAD = 6;
+
+  private final Clock clock;
+  private final boolean luhnCheck;
+  private volatile CurrentMonth currentMonth;
+
+  public PaymentValidationService(Clock clock,
+      @Value("${payments.validation.luhn-check:false}") boolean luhnCheck) {
+    this.clock = clock;
+    this.luhnCheck = luhnCheck;
+    this.currentMonth = CurrentMonth.of(clock);
   }
 
-  private void validateCardNumber(String cardNumber) {
-    if (cardNumber == null || cardNumber.length() < 14 || cardNumber.length() > 19 || !cardNumber.matches("\\d+")) {
-      throw new InvalidPaymentException("Card number must be a numeric string between 14 and 19 digits long");
+  public void validatePaymentRequest(PostPaymentRequest request) {
+    List<String> violations = null;
+    violations = add(violations, checkCardNumber(request.getCardNumber()));
+
+    CurrentMonth today = currentMonth();
+    int expiryMonth = request.getExpiryMonth();
+    int expiryYear = request.getExpiryYear();
+    boolean validMonth = expiryMonth >= 1 && expiryMonth <= 12;
+    boolean validYear = expiryYear >= today.year && expiryYear <= today.year + MAX_YEARS_AHEAD;
+    if (!validMonth) {
+      violations = add(violations, "Expiry month must be between 1 and 12");
+    }
+    if (!validYear) {
+      violations = add(violations, "Invalid expiry year");
+    }
+    if (validMonth && validYear && expiryYear == today.year && expiryMonth < today.month) {
+      violations = add(violations, "Expiry date cannot be in the past");
     }
-  }
 
-  private void validateExpiryMonth(int expiryMonth) {
-    if (expiryMonth < 1 || expiryMonth > 12) {
-      throw new InvalidPaymentException("Expiry month must be between 1 and 12");
+    violations = add(violations, checkCurrency(request.getCurrency()));
+    int cvv = request.getCvv();
+    if (cvv < 100 || cvv > 9999) {
+      violations = add(violations, "CVV must be a 3 or 4-digit number");
+    }
+    if (request.getAmount() <= 0) {
+      violations = add(violations, "Invalid amount");
     }
-  }
 
-  private void validateExpiryYear(int expiryYear) {
-    int currentYear = LocalDate.now().getYear();
-    if (expiryYear < currentYear || expiryYear > currentYear + 6) {
-      throw new InvalidPaymentException("Invalid expiry year");
+    if (violations != null) {
+      throw new InvalidPaymentException(violations);
     }
   }
 
-  private void validateExpiryDate(int expiryMonth, int expiryYear) {
-    LocalDate today = LocalDate.now();
-    LocalDate expiryDate = LocalDate.of(expiryYear, expiryMonth, today.getDayOfMonth());
-    if (expiryDate.isBefore(today)) {
-      throw new InvalidPaymentException("Expiry date cannot be in the past");
+  private String checkCardNumber(String cardNumber) {
+    if (cardNumber == null || cardNumber.length() < 14 || cardNumber.length() > 19) {
+      return "Card number must be a numeric string between 14 and 19 digits long";
     }
+    int sum = 0;
+    for (int i = cardNumber.length() - 1, position = 0; i >= 0; i--, position++) {
+      int digit = cardNumber.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return "Card number must be a numeric string between 14 and 19 digits long";
+      }
+      if ((position & 1) == 1) {
+        digit = digit * 2 > 9 ? digit * 2 - 9 : digit * 2;
+      }
+      sum += digit;
+    }
+    if (luhnCheck && sum % 10 != 0) {
+      return "Card number failed the Luhn check";
+    }
+    return null;
   }
 
-  private void validateCurrency(String currency) {
+  private String checkCurrency(String currency) {
     if (currency == null || currency.trim().isEmpty()) {
-      throw new InvalidPaymentException("Currency is required");
+      return "Currency is required";
     }
-    
-    boolean isValidCurrency = Arrays.stream(Currency.values())
-        .anyMatch(c -> c.getValue().equals(currency));
-    
-    if (!isValidCurrency) {
-      throw new InvalidPaymentException("Invalid currency. Supported currencies: USD, EUR, GBP");
+    if (Currency.fromValue(currency) == null) {
+      return "Invalid currency. Supported currencies: USD, EUR, GBP";
     }
+    return null;
   }
 
-  private void validateCvv(int cvv) {
-    if (cvv < 100 || cvv > 9999) {
-      throw new InvalidPaymentException("CVV must be a 3 or 4-digit number");
+  private CurrentMonth currentMonth() {
+    CurrentMonth cached = currentMonth;
+    if (clock.millis() < cached.endMillis) {
+      return cached;
+    }
+    CurrentMonth refreshed = CurrentMonth.of(clock);
+    currentMonth = refreshed;
+    return refreshed;
+  }
+
+  private static List<String> add(List<String> violations, String violation) {
+    if (violation == null) {
+      return violations;
+    }
+    if (violations == null) {
+      violations = new ArrayList<>(4);
     }
+    violations.add(violation);
+    return violations;
   }
 
-  private void validateAmount(int amount) {
-    if (amount <= 0) {
-      throw new InvalidPaymentException("Invalid amount");
+  private static final class CurrentMonth {
+    private final int year;
+    private final int month;
+    private final long endMillis;
+
+    private CurrentMonth(int year, int month, long endMillis) {
+      this.year = year;
+      this.month = month;
+      this.endMillis = endMillis;
+    }
+
+    private static CurrentMonth of(Clock clock) {
+      YearMonth now = YearMonth.now(clock);
+      long endMillis = now.plusMonths(1).atDay(1).atStartOfDay(clock.getZone())
+          .toInstant().toEpochMilli();
+      return new CurrentMonth(now.getYear(), now.getMonthValue(), endMillis);
     }
   }
 }
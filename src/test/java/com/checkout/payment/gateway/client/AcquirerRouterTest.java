@@ -0,0 +1,274 @@
+package com.checkout.payment.gateway.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.configuration.BankGatewayProperties;
+import com.checkout.payment.gateway.exception.BankGatewayException;
+import com.checkout.payment.gateway.exception.BankGatewayUnavailableException;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class AcquirerRouterTest {
+
+  private final List<HttpServer> banks = new ArrayList<>();
+  private final BankGatewayProperties properties = new BankGatewayProperties();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final List<String> references = new CopyOnWriteArrayList<>();
+  private final AtomicBoolean holdNextCall = new AtomicBoolean();
+  private final AtomicReference<String> heldReference = new AtomicReference<>();
+  private AcquirerRouter router;
+
+  @AfterEach
+  void tearDown() {
+    if (router != null) {
+      router.close();
+    }
+    banks.forEach(bank -> bank.stop(0));
+  }
+
+  private PostPaymentRequest request(String cardNumber, String currency) {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber(cardNumber);
+    request.setExpiryMonth(4);
+    request.setExpiryYear(2030);
+    request.setCurrency(currency);
+    request.setAmount(100);
+    request.setCvv(123);
+    return request;
+  }
+
+  private String bank(int status, AtomicInteger calls) throws IOException {
+    return bank(status, 0, calls);
+  }
+
+  // Starts a bank that answers every call with the given status, counts the calls and records
+  // their idempotency references. Once holdNextCall is set, the next first attempt takes 5
+  // seconds and its reference is kept in heldReference; late hedges of earlier calls are skipped.
+  private String bank(int status, int latencyMillis, AtomicInteger calls) throws IOException {
+    HttpServer bank =
+        HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    bank.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    bank.createContext("/payments", exchange -> {
+      exchange.getRequestBody().readAllBytes();
+      calls.incrementAndGet();
+      String reference =
+          exchange.getRequestHeaders().getFirst(BankGatewayClient.IDEMPOTENCY_KEY_HEADER);
+      boolean firstAttempt = reference != null && !references.contains(reference);
+      if (reference != null) {
+        references.add(reference);
+      }
+      boolean held = firstAttempt && holdNextCall.compareAndSet(true, false);
+      if (held) {
+        heldReference.set(reference);
+      }
+      try {
+        Thread.sleep(held ? 5000 : latencyMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] body = (status == 200
+          ? "{\"authorized\":true,\"authorization_code\":\"" + calls.get() + "\"}"
+          : "{}").getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(status, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    bank.start();
+    banks.add(bank);
+    return "http://localhost:" + bank.getAddress().getPort();
+  }
+
+  // Starts a bank that answers 200 straight away until trap is set. From then on a first attempt
+  // gets a 503 after 200 ms, and a repeated reference, i.e. a hedge, is held for 5 seconds.
+  private String trapBank(AtomicBoolean trap, AtomicInteger trappedCalls) throws IOException {
+    Set<String> seen = ConcurrentHashMap.newKeySet();
+    HttpServer bank =
+        HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    bank.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    bank.createContext("/payments", exchange -> {
+      exchange.getRequestBody().readAllBytes();
+      String reference =
+          exchange.getRequestHeaders().getFirst(BankGatewayClient.IDEMPOTENCY_KEY_HEADER);
+      boolean repeated = reference != null && !seen.add(reference);
+      int status = 200;
+      if (trap.get()) {
+        trappedCalls.incrementAndGet();
+        status = repeated ? 200 : 503;
+        try {
+          Thread.sleep(repeated ? 5000 : 200);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      byte[] body = (status == 200
+          ? "{\"authorized\":true,\"authorization_code\":\"" + reference + "\"}"
+          : "{}").getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(status, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    bank.start();
+    banks.add(bank);
+    return "http://localhost:" + bank.getAddress().getPort();
+  }
+
+  private void addAcquirer(String name, String baseUrl, List<String> currencies,
+      List<String> binRanges) {
+    BankGatewayProperties.Acquirer acquirer = new BankGatewayProperties.Acquirer();
+    acquirer.setName(name);
+    acquirer.setBaseUrl(baseUrl);
+    acquirer.setCurrencies(currencies);
+    acquirer.setBinRanges(binRanges);
+    properties.getAcquirers().add(acquirer);
+  }
+
+  private AcquirerRouter router() {
+    router = new AcquirerRouter(HttpClient.newHttpClient(), properties,
+        new PaymentMetrics(registry));
+    return router;
+  }
+
+  @Test
+  void whenAcquirerAnswers5xxThenPaymentFailsOverToNextAcquirer() throws IOException {
+    AtomicInteger failingCalls = new AtomicInteger();
+    AtomicInteger healthyCalls = new AtomicInteger();
+    addAcquirer("failing", bank(503, failingCalls), List.of(), List.of());
+    addAcquirer("healthy", bank(200, healthyCalls), List.of(), List.of());
+
+    BankGatewayResponse response = router().authorize(request("2222405343248877", "GBP")).join();
+
+    assertTrue(response.isAuthorized());
+    assertEquals(1, failingCalls.get());
+    assertEquals(1, healthyCalls.get());
+  }
+
+  @Test
+  void whenAcquirerAnswers4xxThenPaymentDoesNotFailOver() throws IOException {
+    AtomicInteger rejectingCalls = new AtomicInteger();
+    AtomicInteger otherCalls = new AtomicInteger();
+    addAcquirer("rejecting", bank(400, rejectingCalls), List.of(), List.of());
+    addAcquirer("other", bank(200, otherCalls), List.of(), List.of());
+    router();
+
+    CompletionException error = assertThrows(CompletionException.class,
+        () -> router.authorize(request("2222405343248877", "GBP")).join());
+    assertEquals(400, assertInstanceOf(BankGatewayException.class, error.getCause())
+        .getStatusCode());
+    assertEquals(1, rejectingCalls.get());
+    assertEquals(0, otherCalls.get());
+  }
+
+  @Test
+  void whenAcquirersAreFilteredThenPaymentGoesToTheOneThatAcceptsIt() throws IOException {
+    AtomicInteger usdCalls = new AtomicInteger();
+    AtomicInteger visaGbpCalls = new AtomicInteger();
+    addAcquirer("usd", bank(200, usdCalls), List.of("USD"), List.of());
+    addAcquirer("visa-gbp", bank(200, visaGbpCalls), List.of("GBP"), List.of("400000-499999"));
+    router();
+
+    router.authorize(request("4111111111111111", "GBP")).join();
+    router.authorize(request("4111111111111111", "USD")).join();
+
+    assertEquals(1, visaGbpCalls.get());
+    assertEquals(1, usdCalls.get());
+    CompletionException error = assertThrows(CompletionException.class,
+        () -> router.authorize(request("5111111111111111", "GBP")).join());
+    assertInstanceOf(BankGatewayUnavailableException.class, error.getCause());
+  }
+
+  @Test
+  void whenAcquirerIsFasterThenItIsPreferred() throws IOException {
+    AtomicInteger slowCalls = new AtomicInteger();
+    AtomicInteger fastCalls = new AtomicInteger();
+    addAcquirer("slow", bank(200, 100, slowCalls), List.of(), List.of());
+    addAcquirer("fast", bank(200, fastCalls), List.of(), List.of());
+    router();
+
+    // Give both acquirers a latency sample before routing
+    for (BankGatewayClient acquirer : router.getAcquirers()) {
+      acquirer.authorize(request("2222405343248877", "GBP")).join();
+    }
+    for (int i = 0; i < 5; i++) {
+      router.authorize(request("2222405343248877", "GBP")).join();
+    }
+
+    assertEquals(1, slowCalls.get());
+    assertEquals(6, fastCalls.get());
+  }
+
+  @Test
+  void whenAttemptIsSlowThenHedgeAnswersWithTheSameReference() throws IOException {
+    properties.getHedging().setEnabled(true);
+    properties.getHedging().setMinDelay(Duration.ofMillis(20));
+    AtomicInteger calls = new AtomicInteger();
+    addAcquirer("bank", bank(200, 0, calls), List.of(), List.of());
+    router();
+
+    // Enough calls for a latency estimate, then one that the bank holds for 5 seconds. Warm-up
+    // calls may be hedged too, so the held call is identified by its reference, not its number.
+    while (calls.get() < 100) {
+      router.authorize(request("2222405343248877", "GBP")).join();
+    }
+    holdNextCall.set(true);
+    long start = System.nanoTime();
+    BankGatewayResponse response = router.authorize(request("2222405343248877", "GBP")).join();
+
+    assertTrue(response.isAuthorized());
+    assertTrue(System.nanoTime() - start < Duration.ofSeconds(4).toNanos());
+    String held = heldReference.get();
+    assertEquals(2, references.stream().filter(held::equals).count());
+    assertTrue(registry.get("bank.gateway.hedge.wins").tag("winner", "hedge").counter()
+        .count() >= 1);
+  }
+
+  @Test
+  void whenPrimaryAnswers5xxAndHedgeTimesOutThenPaymentDoesNotFailOver() throws IOException {
+    properties.getHedging().setEnabled(true);
+    properties.getHedging().setMinDelay(Duration.ofMillis(20));
+    properties.setRequestTimeout(Duration.ofSeconds(1));
+    AtomicBoolean trap = new AtomicBoolean();
+    AtomicInteger trappedCalls = new AtomicInteger();
+    addAcquirer("first", trapBank(trap, trappedCalls), List.of(), List.of());
+    addAcquirer("second", trapBank(trap, trappedCalls), List.of(), List.of());
+    router();
+
+    // Enough calls on both acquirers for a latency estimate
+    for (int i = 0; i < 200; i++) {
+      router.authorize(request("2222405343248877", "GBP")).join();
+    }
+    trap.set(true);
+    CompletionException error = assertThrows(CompletionException.class,
+        () -> router.authorize(request("2222405343248877", "GBP")).join());
+
+    // The timed-out hedge may have been authorized, so the other acquirer is never tried
+    BankGatewayException cause = assertInstanceOf(BankGatewayException.class, error.getCause());
+    assertEquals(-1, cause.getStatusCode());
+    assertEquals(2, trappedCalls.get());
+  }
+}
@@ -0,0 +1,39 @@
+package com.checkout.payment.gateway.client;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  @Test
+  void callsAboveTheLimitAreRejected() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.tryAcquire());
+    assertFalse(limiter.tryAcquire());
+
+    limiter.onIgnored();
+    assertTrue(limiter.tryAcquire());
+  }
+
+  @Test
+  void limitShrinksWhenLatencyRises() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 4, 100);
+    for (int i = 0; i < 100; i++) {
+      limiter.tryAcquire();
+      limiter.onSample(TimeUnit.MILLISECONDS.toNanos(10));
+    }
+    int steadyLimit = limiter.getLimit();
+
+    for (int i = 0; i < 20; i++) {
+      limiter.tryAcquire();
+      limiter.onSample(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    assertTrue(limiter.getLimit() < steadyLimit);
+  }
+}
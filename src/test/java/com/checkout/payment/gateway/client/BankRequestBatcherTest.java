@@ -0,0 +1,99 @@
+package com.checkout.payment.gateway.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BankRequestBatcherTest {
+
+  private final List<List<PostPaymentRequest>> sentBatches = new CopyOnWriteArrayList<>();
+
+  private PostPaymentRequest request(int amount) {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setAmount(amount);
+    return request;
+  }
+
+  // Authorizes every payment with its amount as the authorization code
+  private void authorizeAll(List<PostPaymentRequest> requests,
+      List<CompletableFuture<BankGatewayResponse>> results) {
+    sentBatches.add(requests);
+    for (int i = 0; i < requests.size(); i++) {
+      results.get(i).complete(
+          new BankGatewayResponse(true, Integer.toString(requests.get(i).getAmount())));
+    }
+  }
+
+  @Test
+  void whenBatchIsFullThenItIsSentWithoutWaiting() throws Exception {
+    BankRequestBatcher batcher =
+        new BankRequestBatcher(3, Duration.ofHours(1), this::authorizeAll);
+
+    List<CompletableFuture<BankGatewayResponse>> results = new ArrayList<>();
+    for (int i = 1; i <= 3; i++) {
+      results.add(batcher.submit(request(i)));
+    }
+
+    assertEquals(1, sentBatches.size());
+    assertEquals(3, sentBatches.get(0).size());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(Integer.toString(i + 1), results.get(i).get().getAuthorizationCode());
+    }
+    batcher.close();
+  }
+
+  @Test
+  void whenBatchIsNotFullThenItIsSentAfterMaxDelay() throws Exception {
+    BankRequestBatcher batcher =
+        new BankRequestBatcher(32, Duration.ofMillis(20), this::authorizeAll);
+
+    CompletableFuture<BankGatewayResponse> first = batcher.submit(request(1));
+    CompletableFuture<BankGatewayResponse> second = batcher.submit(request(2));
+
+    assertEquals("1", first.get(5, TimeUnit.SECONDS).getAuthorizationCode());
+    assertEquals("2", second.get(5, TimeUnit.SECONDS).getAuthorizationCode());
+    assertEquals(1, sentBatches.size());
+    batcher.close();
+  }
+
+  @Test
+  void whenBatcherIsClosedThenPendingPaymentsAreSent() {
+    BankRequestBatcher batcher =
+        new BankRequestBatcher(32, Duration.ofHours(1), this::authorizeAll);
+
+    CompletableFuture<BankGatewayResponse> result = batcher.submit(request(7));
+    assertFalse(result.isDone());
+
+    batcher.close();
+    assertTrue(result.isDone());
+    assertEquals(1, sentBatches.size());
+  }
+
+  @Test
+  void whenSenderFailsThenEveryPaymentInTheBatchFails() {
+    IllegalStateException failure = new IllegalStateException("Bank unreachable");
+    BankRequestBatcher batcher = new BankRequestBatcher(2, Duration.ofHours(1),
+        (requests, results) -> {
+          throw failure;
+        });
+
+    CompletableFuture<BankGatewayResponse> first = batcher.submit(request(1));
+    CompletableFuture<BankGatewayResponse> second = batcher.submit(request(2));
+
+    assertSame(failure, assertThrows(ExecutionException.class, first::get).getCause());
+    assertSame(failure, assertThrows(ExecutionException.class, second::get).getCause());
+    batcher.close();
+  }
+}
@@ -0,0 +1,127 @@
+package com.checkout.payment.gateway.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BankWireCodecTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private PostPaymentRequest request(int expiryMonth, int amount) {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber("2222405343248877");
+    request.setExpiryMonth(expiryMonth);
+    request.setExpiryYear(2030);
+    request.setCurrency("GBP");
+    request.setAmount(amount);
+    request.setCvv(123);
+    return request;
+  }
+
+  @Test
+  void whenRequestIsEncodedThenBodyMatchesBankContract() throws IOException {
+    byte[] body = BankWireCodec.encodeRequest(request(4, 100));
+
+    JsonNode json = objectMapper.readTree(body);
+    assertEquals("2222405343248877", json.get("card_number").asText());
+    assertEquals("04/2030", json.get("expiry_date").asText());
+    assertEquals("GBP", json.get("currency").asText());
+    assertEquals(100, json.get("amount").asInt());
+    assertEquals(123, json.get("cvv").asInt());
+    assertEquals(5, json.size());
+  }
+
+  @Test
+  void whenRequestIsEncodedThenExpiryDateMatchesRequestFormatting() throws IOException {
+    for (int month : new int[] {1, 9, 10, 12}) {
+      PostPaymentRequest request = request(month, Integer.MAX_VALUE);
+
+      JsonNode json = objectMapper.readTree(BankWireCodec.encodeRequest(request));
+      assertEquals(request.getExpiryDate(), json.get("expiry_date").asText());
+      assertEquals(Integer.MAX_VALUE, json.get("amount").asInt());
+    }
+  }
+
+  @Test
+  void whenRequestIsNotValidatedThenEncodingIsRefused() {
+    PostPaymentRequest request = request(4, 100);
+    request.setCardNumber("2222\"40534324887");
+
+    assertThrows(IllegalArgumentException.class, () -> BankWireCodec.encodeRequest(request));
+  }
+
+  @Test
+  void whenResponseIsDecodedThenFieldsAreRead() throws IOException {
+    byte[] body = ("{\"authorized\":true,\"extra\":{\"a\":[1]},"
+        + "\"authorization_code\":\"0bb07405-6d44-4b50-a14f-7ae0beff13ad\"}")
+        .getBytes(StandardCharsets.UTF_8);
+
+    BankGatewayResponse response = BankWireCodec.decodeResponse(body);
+    assertTrue(response.isAuthorized());
+    assertEquals("0bb07405-6d44-4b50-a14f-7ae0beff13ad", response.getAuthorizationCode());
+  }
+
+  @Test
+  void whenResponseHasNullAuthorizationCodeThenItIsDecoded() throws IOException {
+    byte[] body = "{\"authorized\":false,\"authorization_code\":null}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    BankGatewayResponse response = BankWireCodec.decodeResponse(body);
+    assertFalse(response.isAuthorized());
+    assertNull(response.getAuthorizationCode());
+  }
+
+  @Test
+  void whenResponseIsMalformedThenDecodingFails() {
+    assertThrows(IOException.class, () -> BankWireCodec.decodeResponse(
+        "{\"authorization_code\":\"abc\"}".getBytes(StandardCharsets.UTF_8)));
+    assertThrows(IOException.class, () -> BankWireCodec.decodeResponse(
+        "[true]".getBytes(StandardCharsets.UTF_8)));
+    assertThrows(IOException.class, () -> BankWireCodec.decodeResponse(
+        "{\"authorized\":".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void whenBatchIsEncodedThenEachRequestIsAnArrayElement() throws IOException {
+    byte[] body = BankWireCodec.encodeBatchRequest(List.of(request(4, 100), request(11, 250)));
+
+    JsonNode json = objectMapper.readTree(body);
+    assertEquals(2, json.size());
+    assertEquals("04/2030", json.get(0).get("expiry_date").asText());
+    assertEquals(250, json.get(1).get("amount").asInt());
+  }
+
+  @Test
+  void whenBatchResponseIsDecodedThenItemsLineUpWithRequests() throws IOException {
+    byte[] body = ("[{\"authorized\":true,\"authorization_code\":\"abc\"},"
+        + "{\"status_code\":503},{\"authorized\":false,\"authorization_code\":\"\"}]")
+        .getBytes(StandardCharsets.UTF_8);
+
+    List<BankWireCodec.BatchItem> items = BankWireCodec.decodeBatchResponse(body, 3);
+    assertTrue(items.get(0).getResponse().isAuthorized());
+    assertEquals("abc", items.get(0).getResponse().getAuthorizationCode());
+    assertNull(items.get(1).getResponse());
+    assertEquals(503, items.get(1).getStatusCode());
+    assertFalse(items.get(2).getResponse().isAuthorized());
+  }
+
+  @Test
+  void whenBatchResponseHasWrongItemCountThenDecodingFails() {
+    byte[] body = "[{\"status_code\":400}]".getBytes(StandardCharsets.UTF_8);
+
+    assertThrows(IOException.class, () -> BankWireCodec.decodeBatchResponse(body, 2));
+    assertThrows(IOException.class, () -> BankWireCodec.decodeBatchResponse(
+        "[{}]".getBytes(StandardCharsets.UTF_8), 1));
+  }
+}
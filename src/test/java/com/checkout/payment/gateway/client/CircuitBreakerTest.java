@@ -0,0 +1,50 @@
+package com.checkout.payment.gateway.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private void recordCalls(CircuitBreaker breaker, int count, boolean failure) {
+    for (int i = 0; i < count; i++) {
+      assertTrue(breaker.tryAcquirePermission());
+      if (failure) {
+        breaker.onFailure();
+      } else {
+        breaker.onSuccess();
+      }
+    }
+  }
+
+  @Test
+  void whenFailureRateReachesThresholdThenBreakerOpens() {
+    CircuitBreaker breaker = new CircuitBreaker(10, 10, 0.5, Duration.ofMinutes(1));
+
+    recordCalls(breaker, 5, false);
+    recordCalls(breaker, 4, true);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+    recordCalls(breaker, 1, true);
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquirePermission());
+  }
+
+  @Test
+  void whenProbeSucceedsAfterOpenDurationThenBreakerCloses() throws Exception {
+    CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, Duration.ofMillis(20));
+    recordCalls(breaker, 4, true);
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+    Thread.sleep(40);
+
+    assertTrue(breaker.tryAcquirePermission());
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquirePermission());
+    breaker.onSuccess();
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+  }
+}
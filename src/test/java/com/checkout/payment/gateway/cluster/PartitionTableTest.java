@@ -0,0 +1,74 @@
+package com.checkout.payment.gateway.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class PartitionTableTest {
+
+  private static final int PARTITIONS = 1024;
+
+  private static ClusterNode node(String name, int port) {
+    return new ClusterNode(name, URI.create("http://localhost:" + port));
+  }
+
+  @Test
+  void whenIdIsCreatedForPartitionThenItMapsBackToIt() {
+    for (int partition = 0; partition < PARTITIONS; partition++) {
+      UUID id = PartitionedIds.newId(partition);
+      assertEquals(partition, PartitionedIds.partitionOf(id, PARTITIONS));
+      assertEquals(4, id.version());
+      assertEquals(2, id.variant());
+    }
+  }
+
+  @Test
+  void whenNodesShareTheClusterThenPartitionsAreSpreadEvenly() {
+    List<ClusterNode> nodes = List.of(node("a", 8090), node("b", 8091), node("c", 8092));
+    PartitionTable table = new PartitionTable(nodes, PARTITIONS);
+
+    int total = 0;
+    for (ClusterNode node : nodes) {
+      int owned = table.partitionsOwnedBy(node).length;
+      assertTrue(owned > PARTITIONS / 3 * 0.8 && owned < PARTITIONS / 3 * 1.2,
+          node.getName() + " owns " + owned);
+      total += owned;
+    }
+    assertEquals(PARTITIONS, total);
+  }
+
+  @Test
+  void whenNodeJoinsThenOnlyPartitionsItTakesOverMove() {
+    ClusterNode joining = node("d", 8093);
+    PartitionTable before =
+        new PartitionTable(List.of(node("a", 8090), node("b", 8091), node("c", 8092)), PARTITIONS);
+    PartitionTable after = before.with(joining);
+
+    int moved = 0;
+    for (int partition = 0; partition < PARTITIONS; partition++) {
+      if (!before.owner(partition).equals(after.owner(partition))) {
+        assertEquals(joining, after.owner(partition));
+        moved++;
+      }
+    }
+    assertEquals(after.partitionsOwnedBy(joining).length, moved);
+    assertTrue(moved > PARTITIONS / 4 * 0.8 && moved < PARTITIONS / 4 * 1.2, "moved " + moved);
+    assertEquals(before.getMembers(), after.without(joining).getMembers());
+  }
+
+  @Test
+  void whenMembersAreListedInAnyOrderThenOwnersAreTheSame() {
+    PartitionTable table =
+        new PartitionTable(List.of(node("a", 8090), node("b", 8091)), PARTITIONS);
+    PartitionTable reversed =
+        new PartitionTable(List.of(node("b", 8091), node("a", 8090)), PARTITIONS);
+
+    for (int partition = 0; partition < PARTITIONS; partition++) {
+      assertEquals(table.owner(partition), reversed.owner(partition));
+    }
+  }
+}
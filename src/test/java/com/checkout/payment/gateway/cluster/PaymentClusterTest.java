@@ -0,0 +1,164 @@
+package com.checkout.payment.gateway.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.PaymentGatewayApplication;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import com.checkout.payment.gateway.repository.PaymentRecord;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Runs two gateway nodes in-process on localhost ports
+ */
+class PaymentClusterTest {
+
+  private static final String SECRET = "test-secret";
+
+  private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  @AfterEach
+  void stopNodes() {
+    nodes.forEach(ConfigurableApplicationContext::close);
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private ConfigurableApplicationContext startNode(String name, int port, Integer seedPort) {
+    ConfigurableApplicationContext node = new SpringApplicationBuilder(
+        PaymentGatewayApplication.class)
+        .properties(
+            "server.port=" + port,
+            "payments.cluster.enabled=true",
+            "payments.cluster.node-name=" + name,
+            "payments.cluster.secret=" + SECRET,
+            "payments.cluster.advertised-url=http://localhost:" + port,
+            "payments.cluster.seeds=" + (seedPort == null ? "" : "http://localhost:" + seedPort))
+        .run();
+    nodes.add(node);
+    return node;
+  }
+
+  private static UUID addPayment(ConfigurableApplicationContext node) {
+    UUID id = node.getBean(PaymentCluster.class).newPaymentId();
+    node.getBean(PaymentsRepository.class).add(new PaymentDetails(id, null,
+        PaymentStatus.DECLINED, 4321, 12, 2030, "GBP", 10));
+    return id;
+  }
+
+  private int getPayment(int port, UUID id) throws Exception {
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/payment/" + id)).build();
+    return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+
+  @Test
+  void whenNodeJoinsThenPaymentsAreReadableFromEitherNode() throws Exception {
+    int firstPort = freePort();
+    int secondPort = freePort();
+    ConfigurableApplicationContext first = startNode("first", firstPort, null);
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      ids.add(addPayment(first));
+    }
+
+    ConfigurableApplicationContext second = startNode("second", secondPort, firstPort);
+    for (int i = 0; i < 200; i++) {
+      ids.add(addPayment(first));
+      ids.add(addPayment(second));
+    }
+
+    assertEquals(2, first.getBean(PaymentCluster.class).getMembers().size());
+    assertTrue(second.getBean(PaymentCluster.class).getOwnedPartitionCount() > 0);
+    assertTrue(second.getBean(PaymentsRepository.class).size() > 200,
+        "Second node took over no payments");
+    for (UUID id : ids) {
+      assertEquals(200, getPayment(firstPort, id), id.toString());
+      assertEquals(200, getPayment(secondPort, id), id.toString());
+    }
+    assertEquals(404, getPayment(firstPort, UUID.randomUUID()));
+  }
+
+  @Test
+  void whenInternalCallLacksSecretThenItIsRejected() throws Exception {
+    int port = freePort();
+    ConfigurableApplicationContext node = startNode("only", port, null);
+    UUID id = addPayment(node);
+    URI base = URI.create("http://localhost:" + port);
+
+    HttpRequest join = HttpRequest.newBuilder(base.resolve(ClusterClient.MEMBERS_ENDPOINT))
+        .header("Content-Type", "text/plain")
+        .POST(HttpRequest.BodyPublishers.ofString("fake http://attacker.example"))
+        .build();
+    HttpRequest partitions = HttpRequest.newBuilder(
+        base.resolve(ClusterClient.PARTITIONS_ENDPOINT + "?ids=0,1,2")).build();
+    HttpRequest payment = HttpRequest.newBuilder(
+            base.resolve(ClusterClient.PAYMENT_ENDPOINT + id))
+        .header(ClusterClient.SECRET_HEADER, "wrong")
+        .build();
+
+    assertEquals(403, client.send(join, HttpResponse.BodyHandlers.discarding()).statusCode());
+    assertEquals(403,
+        client.send(partitions, HttpResponse.BodyHandlers.discarding()).statusCode());
+    assertEquals(403, client.send(payment, HttpResponse.BodyHandlers.discarding()).statusCode());
+    assertEquals(1, node.getBean(PaymentCluster.class).getMembers().size());
+
+    HttpRequest authorized = HttpRequest.newBuilder(
+            base.resolve(ClusterClient.PAYMENT_ENDPOINT + id))
+        .header(ClusterClient.SECRET_HEADER, SECRET)
+        .build();
+    assertEquals(200,
+        client.send(authorized, HttpResponse.BodyHandlers.discarding()).statusCode());
+  }
+
+  @Test
+  void exportStreamsTheRecordsOfTheRequestedPartitionsOnly() throws Exception {
+    PaymentsRepository repository = new PaymentsRepository(16, 0, Duration.ZERO,
+        Optional.empty());
+    PaymentCluster cluster = new PaymentCluster(repository, true,
+        new ClusterNode("only", URI.create("http://localhost:8090")), List.of(), 4, null);
+    Set<UUID> expected = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      UUID id = PartitionedIds.newId(i % 4);
+      String authorizationCode = i % 3 == 0 ? "authorization-code-" + i + "-\u00e9" : null;
+      repository.add(new PaymentDetails(id, authorizationCode, PaymentStatus.AUTHORIZED, 4321,
+          12, 2030, "GBP", 10));
+      if (i % 4 == 1) {
+        expected.add(id);
+      }
+    }
+
+    Set<UUID> exported = new HashSet<>();
+    try (InputStream export = cluster.exportPartitions(new int[] {1})) {
+      for (byte[] record : PaymentRecord.split(export.readAllBytes())) {
+        exported.add(PaymentRecord.wrap(record).getId());
+      }
+    }
+
+    assertEquals(expected, exported);
+  }
+}
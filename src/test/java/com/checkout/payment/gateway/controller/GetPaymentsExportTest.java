@@ -0,0 +1,92 @@
+package com.checkout.payment.gateway.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Tests for GET /payments/export - streaming every stored payment
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class GetPaymentsExportTest {
+
+  @Autowired
+  private MockMvc mvc;
+  @Autowired
+  private ObjectMapper objectMapper;
+  @Autowired
+  PaymentsRepository paymentsRepository;
+
+  private PaymentDetails addPayment() {
+    PaymentDetails payment = new PaymentDetails(UUID.randomUUID(), null, PaymentStatus.REJECTED,
+        4321, 12, 2030, "GBP", 10);
+    paymentsRepository.add(payment);
+    return payment;
+  }
+
+  private String[] performExport(String format) throws Exception {
+    return mvc.perform(get("/payments/export").param("format", format))
+        .andExpect(request().asyncNotStarted())
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getContentAsString()
+        .split("\n");
+  }
+
+  @Test
+  void whenExportingNdjsonThenEveryPaymentIsOneLine() throws Exception {
+    PaymentDetails payment = addPayment();
+
+    String[] lines = performExport("ndjson");
+
+    assertEquals(paymentsRepository.size(), lines.length);
+    JsonNode exported = null;
+    for (String line : lines) {
+      JsonNode node = objectMapper.readTree(line);
+      if (node.get("id").asText().equals(payment.getId().toString())) {
+        exported = node;
+      }
+    }
+    assertEquals("Rejected", exported.get("status").asText());
+    assertEquals(4321, exported.get("cardNumberLastFour").asInt());
+    assertEquals("GBP", exported.get("currency").asText());
+    assertEquals(10, exported.get("amount").asInt());
+  }
+
+  @Test
+  void whenExportingCsvThenHeaderIsFollowedByOneRowPerPayment() throws Exception {
+    PaymentDetails payment = addPayment();
+
+    String[] lines = performExport("csv");
+
+    assertEquals("id,status,cardNumberLastFour,expiryMonth,expiryYear,currency,amount", lines[0]);
+    assertEquals(paymentsRepository.size() + 1, lines.length);
+    assertTrue(Arrays.asList(lines)
+        .contains(payment.getId() + ",Rejected,4321,12,2030,GBP,10"));
+  }
+
+  @Test
+  void whenFormatIsUnsupportedThen400IsReturned() throws Exception {
+    mvc.perform(get("/payments/export").param("format", "xml"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Rejected: Invalid query"));
+  }
+}
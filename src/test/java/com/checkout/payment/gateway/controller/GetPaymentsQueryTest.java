@@ -0,0 +1,86 @@
+package com.checkout.payment.gateway.controller;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+/**
+ * Tests for GET /payments - listing stored payments with filters and cursor paging
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class GetPaymentsQueryTest {
+
+  @Autowired
+  private MockMvc mvc;
+  @Autowired
+  private ObjectMapper objectMapper;
+  @Autowired
+  PaymentsRepository paymentsRepository;
+
+  private PaymentDetails addDeclinedPayment() throws InterruptedException {
+    // Payments stored within the same millisecond are ordered by id, not insertion
+    Thread.sleep(2);
+    PaymentDetails payment = new PaymentDetails(UUID.randomUUID(), null, PaymentStatus.DECLINED,
+        4321, 12, 2030, "EUR", 10);
+    paymentsRepository.add(payment);
+    return payment;
+  }
+
+  @Test
+  void whenListingByStatusThenPagesFollowCursor() throws Exception {
+    String from = Instant.now().minusMillis(1).toString();
+    PaymentDetails first = addDeclinedPayment();
+    PaymentDetails second = addDeclinedPayment();
+    PaymentDetails third = addDeclinedPayment();
+
+    String body = mvc.perform(MockMvcRequestBuilders.get("/payments")
+            .param("status", "Declined")
+            .param("currency", "EUR")
+            .param("from", from)
+            .param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.payments.length()").value(2))
+        .andExpect(jsonPath("$.payments[0].id").value(first.getId().toString()))
+        .andExpect(jsonPath("$.payments[1].id").value(second.getId().toString()))
+        .andReturn().getResponse().getContentAsString();
+    JsonNode page = objectMapper.readTree(body);
+
+    mvc.perform(MockMvcRequestBuilders.get("/payments")
+            .param("status", "Declined")
+            .param("currency", "EUR")
+            .param("from", from)
+            .param("limit", "2")
+            .param("cursor", page.get("nextCursor").asText()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.payments.length()").value(1))
+        .andExpect(jsonPath("$.payments[0].id").value(third.getId().toString()))
+        .andExpect(jsonPath("$.nextCursor").doesNotExist());
+  }
+
+  @Test
+  void whenFilterIsInvalidThen400IsReturned() throws Exception {
+    mvc.perform(MockMvcRequestBuilders.get("/payments").param("status", "Pending"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Rejected: Invalid query"));
+    mvc.perform(MockMvcRequestBuilders.get("/payments").param("from", "yesterday"))
+        .andExpect(status().isBadRequest());
+    mvc.perform(MockMvcRequestBuilders.get("/payments").param("cursor", "not-a-cursor"))
+        .andExpect(status().isBadRequest());
+    mvc.perform(MockMvcRequestBuilders.get("/payments").param("limit", "0"))
+        .andExpect(status().isBadRequest());
+  }
+}
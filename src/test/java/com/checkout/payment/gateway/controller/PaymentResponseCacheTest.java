@@ -0,0 +1,110 @@
+package com.checkout.payment.gateway.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.controller.PaymentResponseCache.CachedResponse;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import com.checkout.payment.gateway.repository.PaymentRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+class PaymentResponseCacheTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final PaymentMetrics metrics = new PaymentMetrics(registry);
+
+  private static PaymentDetails payment() {
+    return new PaymentDetails(UUID.randomUUID(), "auth", PaymentStatus.AUTHORIZED, 4321, 12, 2030,
+        "GBP", 100);
+  }
+
+  private static PaymentRecord stored(PaymentDetails payment) {
+    return PaymentRecord.wrap(PaymentRecord.encode(payment, System.currentTimeMillis()));
+  }
+
+  private double count(String result) {
+    return registry.get("payments.response.cache").tag("result", result).counter().count();
+  }
+
+  @Test
+  void whenPaymentIsAddedAtWriteTimeThenFirstReadIsAHit() throws Exception {
+    PaymentResponseCache cache = new PaymentResponseCache(objectMapper, metrics, 10);
+    PaymentDetails payment = payment();
+
+    cache.add(payment);
+    CachedResponse response = cache.get(stored(payment));
+
+    assertEquals(1, count("hit"));
+    assertEquals(0, count("miss"));
+    assertArrayEquals(objectMapper.writeValueAsBytes(
+            PaymentGatewayController.convertToGetPaymentResponse(stored(payment))),
+        response.getBody());
+  }
+
+  @Test
+  void whenPaymentIsReadTwiceThenSecondReadIsServedFromCache() {
+    PaymentResponseCache cache = new PaymentResponseCache(objectMapper, metrics, 10);
+    PaymentRecord payment = stored(payment());
+
+    CachedResponse first = cache.get(payment);
+    CachedResponse second = cache.get(payment);
+
+    assertSame(first, second);
+    assertEquals(1, count("miss"));
+    assertEquals(1, count("hit"));
+  }
+
+  @Test
+  void whenCacheIsFullThenOldestResponseIsEvicted() {
+    PaymentResponseCache cache = new PaymentResponseCache(objectMapper, metrics, 2);
+    PaymentDetails oldest = payment();
+    cache.add(oldest);
+    cache.add(payment());
+    cache.add(payment());
+
+    assertEquals(2, cache.size());
+    cache.get(stored(oldest));
+    assertEquals(1, count("miss"));
+  }
+
+  @Test
+  void whenCacheIsDisabledThenNothingIsKept() {
+    PaymentResponseCache cache = new PaymentResponseCache(objectMapper, metrics, 0);
+    PaymentDetails payment = payment();
+    cache.add(payment);
+    cache.get(stored(payment));
+
+    assertEquals(0, cache.size());
+    assertEquals(1, count("miss"));
+  }
+
+  @Test
+  void whenIfNoneMatchListsEtagThenNotModifiedIsReturned() {
+    PaymentResponseCache cache = new PaymentResponseCache(objectMapper, metrics, 10);
+    CachedResponse response = cache.get(stored(payment()));
+    String etag = response.getEtag();
+
+    assertTrue(response.matches(etag));
+    assertTrue(response.matches("\"other\", W/" + etag));
+    assertTrue(response.matches("*"));
+    assertFalse(response.matches("\"other\""));
+    assertFalse(response.matches(null));
+
+    ResponseEntity<byte[]> notModified = response.toResponseEntity(etag);
+    assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+    assertNull(notModified.getBody());
+    assertEquals(HttpStatus.OK, response.toResponseEntity(null).getStatusCode());
+  }
+}
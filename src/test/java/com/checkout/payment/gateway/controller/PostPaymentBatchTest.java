@@ -0,0 +1,112 @@
+package com.checkout.payment.gateway.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PostPaymentBatchTest {
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private Map<String, Object> getSamplePaymentRequest(String cardNumber) {
+    Map<String, Object> request = new HashMap<>();
+    request.put("cardNumber", cardNumber);
+    request.put("expiryMonth", 12);
+    request.put("expiryYear", LocalDate.now().getYear() + 1);
+    request.put("currency", "USD");
+    request.put("amount", 10);
+    request.put("cvv", 123);
+    return request;
+  }
+
+  private String[] performBatch(String content, MediaType contentType) throws Exception {
+    MvcResult result = mvc.perform(post("/payments/batch")
+        .contentType(contentType)
+        .content(content))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    return mvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getContentAsString()
+        .split("\n");
+  }
+
+  @Test
+  void jsonArrayBatchReturnsOneResultPerItemInOrder() throws Exception {
+    String content = objectMapper.writeValueAsString(List.of(
+        getSamplePaymentRequest("1111111111111111"),
+        getSamplePaymentRequest("1234"),
+        getSamplePaymentRequest("2222222222222222")));
+
+    String[] lines = performBatch(content, MediaType.APPLICATION_JSON);
+
+    assertEquals(3, lines.length);
+    JsonNode first = objectMapper.readTree(lines[0]);
+    assertEquals(0, first.get("index").asInt());
+    assertEquals(PaymentStatus.AUTHORIZED.getName(), first.get("payment").get("status").asText());
+    JsonNode second = objectMapper.readTree(lines[1]);
+    assertEquals(1, second.get("index").asInt());
+    assertEquals("Rejected: Invalid payment request", second.get("error").asText());
+    JsonNode third = objectMapper.readTree(lines[2]);
+    assertEquals(PaymentStatus.REJECTED.getName(), third.get("payment").get("status").asText());
+  }
+
+  @Test
+  void ndjsonBatchIsAccepted() throws Exception {
+    String content = objectMapper.writeValueAsString(getSamplePaymentRequest("1111111111111111"))
+        + "\n" + objectMapper.writeValueAsString(getSamplePaymentRequest("3333333333333333"));
+
+    String[] lines = performBatch(content, MediaType.APPLICATION_NDJSON);
+
+    assertEquals(2, lines.length);
+    assertEquals(1, objectMapper.readTree(lines[1]).get("index").asInt());
+  }
+
+  @Test
+  void formatErrorAfterStartedItemsEndsTheBatchWithAnErrorLine() throws Exception {
+    String content = objectMapper.writeValueAsString(getSamplePaymentRequest("1111111111111111"))
+        + "\n" + "not json";
+
+    String[] lines = performBatch(content, MediaType.APPLICATION_NDJSON);
+
+    assertEquals(2, lines.length);
+    JsonNode first = objectMapper.readTree(lines[0]);
+    assertEquals(PaymentStatus.AUTHORIZED.getName(), first.get("payment").get("status").asText());
+    JsonNode last = objectMapper.readTree(lines[1]);
+    assertEquals(1, last.get("index").asInt());
+    assertEquals("Rejected: Invalid batch request", last.get("error").asText());
+  }
+
+  @Test
+  void malformedBatchReturns400() throws Exception {
+    mvc.perform(post("/payments/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[1, 2]"))
+        .andExpect(status().isBadRequest());
+  }
+}
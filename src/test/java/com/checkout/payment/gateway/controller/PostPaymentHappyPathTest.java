@@ -1,14 +1,18 @@
 package com.checkout.payment.gateway.controller;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.checkout.payment.gateway.enums.PaymentStatus;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -16,6 +20,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -27,6 +32,26 @@ class PostPaymentHappyPathTest {
   @Autowired
   private ObjectMapper objectMapper;
 
+  private ResultActions performPayment(Map<String, Object> paymentRequest) throws Exception {
+    MvcResult result = mvc.perform(post("/payment")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(paymentRequest)))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    return mvc.perform(asyncDispatch(result));
+  }
+
+  private ResultActions performPayment(Map<String, Object> paymentRequest, String idempotencyKey)
+      throws Exception {
+    MvcResult result = mvc.perform(post("/payment")
+        .header("Idempotency-Key", idempotencyKey)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(paymentRequest)))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    return mvc.perform(asyncDispatch(result));
+  }
+
   @Test
   void requestWithValidCardIsAuthorised() throws Exception {
     Map<String, Object> paymentRequest = new HashMap<>();
@@ -37,9 +62,7 @@ class PostPaymentHappyPathTest {
     paymentRequest.put("amount", 10);
     paymentRequest.put("cvv", 123);
 
-    mvc.perform(post("/payment")
-        .contentType(MediaType.APPLICATION_JSON)
-        .content(objectMapper.writeValueAsString(paymentRequest)))
+    performPayment(paymentRequest)
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.id").exists())
         .andExpect(jsonPath("$.status").value(PaymentStatus.AUTHORIZED.getName()))
@@ -60,9 +83,7 @@ class PostPaymentHappyPathTest {
     paymentRequest.put("amount", 10);
     paymentRequest.put("cvv", 123);
 
-    mvc.perform(post("/payment")
-        .contentType(MediaType.APPLICATION_JSON)
-        .content(objectMapper.writeValueAsString(paymentRequest)))
+    performPayment(paymentRequest)
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.id").exists())
         .andExpect(jsonPath("$.status").value(PaymentStatus.REJECTED.getName()))
@@ -83,9 +104,7 @@ class PostPaymentHappyPathTest {
     paymentRequest.put("amount", 10);
     paymentRequest.put("cvv", 123);
 
-    MvcResult postResult = mvc.perform(post("/payment")
-        .contentType(MediaType.APPLICATION_JSON)
-        .content(objectMapper.writeValueAsString(paymentRequest)))
+    MvcResult postResult = performPayment(paymentRequest)
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.id").exists())
         .andReturn();
@@ -95,7 +114,10 @@ class PostPaymentHappyPathTest {
     Map<String, Object> postResponse = (Map<String, Object>) objectMapper.readValue(responseContent, Map.class);
     String paymentId = (String) postResponse.get("id");
 
-    mvc.perform(get("/payment/" + paymentId))
+    MvcResult getResult = mvc.perform(get("/payment/" + paymentId))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mvc.perform(asyncDispatch(getResult))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.id").value(paymentId))
         .andExpect(jsonPath("$.status").value(PaymentStatus.AUTHORIZED.getName()))
@@ -105,4 +127,52 @@ class PostPaymentHappyPathTest {
         .andExpect(jsonPath("$.currency").value("USD"))
         .andExpect(jsonPath("$.amount").value(10));
   }
+
+  @Test
+  void retriedRequestWithSameIdempotencyKeyReturnsOriginalPayment() throws Exception {
+    Map<String, Object> paymentRequest = new HashMap<>();
+    paymentRequest.put("cardNumber", "1111111111111111");
+    paymentRequest.put("expiryMonth", 12);
+    paymentRequest.put("expiryYear", LocalDate.now().getYear() + 1);
+    paymentRequest.put("currency", "USD");
+    paymentRequest.put("amount", 10);
+    paymentRequest.put("cvv", 123);
+    String idempotencyKey = UUID.randomUUID().toString();
+
+    String firstId = getPaymentId(performPayment(paymentRequest, idempotencyKey)
+        .andExpect(status().isOk())
+        .andReturn());
+
+    performPayment(paymentRequest, idempotencyKey)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(firstId));
+  }
+
+  @Test
+  void requestReusingIdempotencyKeyForDifferentPaymentIsRejected() throws Exception {
+    Map<String, Object> paymentRequest = new HashMap<>();
+    paymentRequest.put("cardNumber", "1111111111111111");
+    paymentRequest.put("expiryMonth", 12);
+    paymentRequest.put("expiryYear", LocalDate.now().getYear() + 1);
+    paymentRequest.put("currency", "USD");
+    paymentRequest.put("amount", 10);
+    paymentRequest.put("cvv", 123);
+    String idempotencyKey = UUID.randomUUID().toString();
+
+    performPayment(paymentRequest, idempotencyKey)
+        .andExpect(status().isOk());
+
+    paymentRequest.put("amount", 1000);
+    performPayment(paymentRequest, idempotencyKey)
+        .andExpect(status().isUnprocessableEntity())
+        .andExpect(jsonPath("$.message")
+            .value("Rejected: Idempotency key reused for a different payment"));
+  }
+
+  private String getPaymentId(MvcResult result) throws Exception {
+    @SuppressWarnings("unchecked")
+    Map<String, Object> response = (Map<String, Object>) objectMapper.readValue(
+        result.getResponse().getContentAsString(), Map.class);
+    return (String) response.get("id");
+  }
 }
\ No newline at end of file
@@ -141,4 +141,22 @@ class PostPaymentMalformedRequestTest {
       assertPaymentRequest(paymentRequest);
     }
   }
+
+  @Test
+  void requestWithUnknownFieldReturns400() throws Exception {
+    Map<String, Object> paymentRequest = getSampleValidPaymentRequest();
+    paymentRequest.put("cvv", 123);
+    paymentRequest.put("cardHolder", "J. Smith");
+
+    assertPaymentRequest(paymentRequest);
+  }
+
+  @Test
+  void requestThatIsNotJsonObjectReturns400() throws Exception {
+    mvc.perform(post("/payment")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[\"1111111111111111\"]"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Rejected: Invalid payment request"));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.checkout.payment.gateway.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Tests for the WebFlux endpoints served under the reactive profile. Payments are authorized by
+ * a stub bank that approves every call.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactivePaymentGatewayControllerTest {
+
+  private static final AtomicInteger BANK_CALLS = new AtomicInteger();
+  private static HttpServer bank;
+
+  @Autowired
+  private WebTestClient client;
+  @Autowired
+  PaymentsRepository paymentsRepository;
+
+  @DynamicPropertySource
+  static void bankProperties(DynamicPropertyRegistry registry) {
+    registry.add("bank.gateway.base-url", ReactivePaymentGatewayControllerTest::startBank);
+  }
+
+  private static synchronized String startBank() {
+    if (bank == null) {
+      try {
+        bank = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      bank.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+      bank.createContext("/payments", exchange -> {
+        exchange.getRequestBody().readAllBytes();
+        byte[] body = ("{\"authorized\":true,\"authorization_code\":\""
+            + BANK_CALLS.incrementAndGet() + "\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(body);
+        }
+      });
+      bank.start();
+    }
+    return "http://localhost:" + bank.getAddress().getPort();
+  }
+
+  @AfterAll
+  static void stopBank() {
+    if (bank != null) {
+      bank.stop(0);
+    }
+  }
+
+  private Map<String, Object> paymentRequest() {
+    Map<String, Object> request = new HashMap<>();
+    request.put("cardNumber", "1111111111111111");
+    request.put("expiryMonth", 12);
+    request.put("expiryYear", LocalDate.now().getYear() + 1);
+    request.put("currency", "USD");
+    request.put("amount", 10);
+    request.put("cvv", 123);
+    return request;
+  }
+
+  private WebTestClient.ResponseSpec postPayment(Map<String, Object> request,
+      String idempotencyKey) {
+    return client.post().uri("/payment")
+        .contentType(MediaType.APPLICATION_JSON)
+        .headers(headers -> {
+          if (idempotencyKey != null) {
+            headers.set(PaymentGatewayController.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+          }
+        })
+        .bodyValue(request)
+        .exchange();
+  }
+
+  private PaymentDetails addPayment() {
+    PaymentDetails payment = new PaymentDetails(UUID.randomUUID(), null, PaymentStatus.AUTHORIZED,
+        4321, 12, 2030, "GBP", 10);
+    paymentsRepository.add(payment);
+    return payment;
+  }
+
+  @Test
+  void whenPingedThenPongIsReturned() {
+    client.get().uri("/")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.message").isEqualTo("pong");
+  }
+
+  @Test
+  void whenPaymentIsPostedThenBankAuthorizesIt() {
+    AtomicReference<String> id = new AtomicReference<>();
+
+    postPayment(paymentRequest(), null)
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.id").value(id::set)
+        .jsonPath("$.status").isEqualTo(PaymentStatus.AUTHORIZED.getName())
+        .jsonPath("$.cardNumberLastFour").isEqualTo(1111)
+        .jsonPath("$.currency").isEqualTo("USD")
+        .jsonPath("$.amount").isEqualTo(10);
+
+    client.get().uri("/payment/" + id.get())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.status").isEqualTo(PaymentStatus.AUTHORIZED.getName());
+  }
+
+  @Test
+  void whenPaymentIsRetriedWithSameIdempotencyKeyThenOriginalPaymentIsReturned() {
+    String idempotencyKey = UUID.randomUUID().toString();
+    AtomicReference<String> firstId = new AtomicReference<>();
+    postPayment(paymentRequest(), idempotencyKey)
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.id").value(firstId::set);
+    int callsAfterFirst = BANK_CALLS.get();
+
+    postPayment(paymentRequest(), idempotencyKey)
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.id").isEqualTo(firstId.get());
+
+    assertEquals(callsAfterFirst, BANK_CALLS.get());
+  }
+
+  @Test
+  void whenPaymentWithIdExistThenCorrectPaymentIsReturned() {
+    PaymentDetails payment = addPayment();
+
+    client.get().uri("/payment/" + payment.getId())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.id").isEqualTo(payment.getId().toString())
+        .jsonPath("$.status").isEqualTo(payment.getStatus().getName())
+        .jsonPath("$.cardNumberLastFour").isEqualTo(payment.getCardNumberLastFour())
+        .jsonPath("$.currency").isEqualTo(payment.getCurrency())
+        .jsonPath("$.amount").isEqualTo(payment.getAmount());
+  }
+
+  @Test
+  void whenPaymentWithIdDoesNotExistThen404IsReturned() {
+    client.get().uri("/payment/" + UUID.randomUUID())
+        .exchange()
+        .expectStatus().isNotFound()
+        .expectBody()
+        .jsonPath("$.message").isEqualTo("Page not found");
+  }
+
+  @Test
+  void whenListingPaymentsThenStoredPaymentIsReturned() {
+    PaymentDetails payment = addPayment();
+
+    client.get().uri("/payments?status=Authorized&currency=GBP&limit=1000")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.payments[?(@.id == '" + payment.getId() + "')]").exists();
+  }
+
+  @Test
+  void whenLimitIsOutOfRangeThen400IsReturned() {
+    client.get().uri("/payments?limit=0")
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody()
+        .jsonPath("$.message").isEqualTo("Rejected: Invalid query");
+  }
+}
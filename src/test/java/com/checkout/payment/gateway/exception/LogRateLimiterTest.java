@@ -0,0 +1,45 @@
+package com.checkout.payment.gateway.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class LogRateLimiterTest {
+
+  private final AtomicLong nanoTime = new AtomicLong();
+
+  @Test
+  void whenBudgetIsSpentThenEventsAreSuppressedUntilNextWindow() {
+    LogRateLimiter limiter = new LogRateLimiter(2, 0, nanoTime::get);
+
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.tryAcquire());
+    assertFalse(limiter.tryAcquire());
+    assertFalse(limiter.tryAcquire());
+    assertEquals(2, limiter.drainSuppressed());
+    assertEquals(0, limiter.drainSuppressed());
+
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertTrue(limiter.tryAcquire());
+  }
+
+  @Test
+  void whenBudgetIsSpentThenOneInSampleRateIsStillLogged() {
+    LogRateLimiter limiter = new LogRateLimiter(1, 3, nanoTime::get);
+
+    int logged = 0;
+    for (int i = 0; i < 10; i++) {
+      if (limiter.tryAcquire()) {
+        logged++;
+      }
+    }
+
+    // The first event fills the budget, then events 4, 7 and 10 are sampled
+    assertEquals(4, logged);
+    assertEquals(6, limiter.drainSuppressed());
+  }
+}
@@ -0,0 +1,67 @@
+package com.checkout.payment.gateway.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class PaymentMetricsTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final PaymentMetrics metrics = new PaymentMetrics(registry);
+
+  @Test
+  void whenStageIsRecordedThenItsTimerIsUpdated() {
+    metrics.recordStage(PaymentMetrics.Stage.BANK, TimeUnit.MILLISECONDS.toNanos(5));
+
+    assertEquals(1, registry.get("payments.stage").tag("stage", "bank").timer().count());
+    assertEquals(0, registry.get("payments.stage").tag("stage", "validation").timer().count());
+  }
+
+  @Test
+  void whenPaymentIsRecordedThenStatusAndCurrencyCounterIsIncremented() {
+    metrics.recordPayment(PaymentStatus.AUTHORIZED, "GBP");
+    metrics.recordPayment(PaymentStatus.AUTHORIZED, "GBP");
+    metrics.recordPayment(PaymentStatus.REJECTED, "USD");
+
+    assertEquals(2, registry.get("payments.processed")
+        .tags("status", "Authorized", "currency", "GBP").counter().count());
+    assertEquals(1, registry.get("payments.processed")
+        .tags("status", "Rejected", "currency", "USD").counter().count());
+  }
+
+  @Test
+  void whenBankRespondsThenStatusCodeIsCounted() {
+    metrics.recordBankResponse(200);
+    metrics.recordBankResponse(503);
+    metrics.recordBankResponse(503);
+    metrics.recordBankResponse(-1);
+
+    assertEquals(1, registry.get("bank.gateway.responses").tag("status", "200").counter().count());
+    assertEquals(2, registry.get("bank.gateway.responses").tag("status", "503").counter().count());
+    assertEquals(1, registry.get("bank.gateway.responses").tag("status", "none").counter().count());
+    assertNull(registry.find("bank.gateway.responses").tag("status", "404").counter());
+  }
+
+  @Test
+  void whenErrorIsRecordedThenItsReasonIsCounted() {
+    metrics.recordError(PaymentMetrics.ErrorReason.NOT_FOUND);
+    metrics.recordError(PaymentMetrics.ErrorReason.NOT_FOUND);
+
+    assertEquals(2, registry.get("payments.errors").tag("reason", "not_found").counter().count());
+    assertEquals(0,
+        registry.get("payments.errors").tag("reason", "invalid_payment").counter().count());
+  }
+
+  @Test
+  void whenPaymentsAreInFlightThenGaugeReflectsThem() {
+    metrics.paymentStarted();
+    metrics.paymentStarted();
+    metrics.paymentCompleted();
+
+    assertEquals(1, registry.get("payments.in.flight").gauge().value());
+  }
+}
@@ -0,0 +1,76 @@
+package com.checkout.payment.gateway.replication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ReplicationLogTest {
+
+  @Test
+  void whenRecordsAreAppendedThenTheyAreReadInOrder() throws Exception {
+    ReplicationLog log = new ReplicationLog(8, AckMode.ASYNC, Duration.ofMillis(100));
+    byte[] first = new byte[1];
+    byte[] second = new byte[1];
+    byte[] third = new byte[1];
+    log.append(first);
+    log.append(second);
+    log.append(third);
+
+    byte[][] batch = new byte[2][];
+    assertEquals(2, log.read(0, batch, 0));
+    assertSame(first, batch[0]);
+    assertSame(second, batch[1]);
+    assertEquals(1, log.read(2, batch, 0));
+    assertSame(third, batch[0]);
+    assertEquals(0, log.read(3, batch, 0));
+  }
+
+  @Test
+  void whenReaderFallsOutOfTheLogThenItNeedsSnapshot() throws Exception {
+    ReplicationLog log = new ReplicationLog(2, AckMode.ASYNC, Duration.ofMillis(100));
+    for (int i = 0; i < 3; i++) {
+      log.append(new byte[1]);
+    }
+
+    byte[][] batch = new byte[4][];
+    assertEquals(-1, log.read(0, batch, 0));
+    assertEquals(2, log.read(1, batch, 0));
+    assertEquals(-1, log.read(ReplicationProtocol.NO_SEQUENCE, batch, 0));
+    assertEquals(-1, log.read(4, batch, 0));
+  }
+
+  @Test
+  void whenSemiSyncAndFollowerAcknowledgesThenAppendReturns() throws Exception {
+    ReplicationLog log = new ReplicationLog(8, AckMode.SEMI_SYNC, Duration.ofSeconds(10));
+    log.followerConnected();
+
+    CompletableFuture<Long> append = CompletableFuture.supplyAsync(() -> log.append(new byte[1]));
+    byte[][] batch = new byte[1][];
+    assertEquals(1, log.read(0, batch, TimeUnit.SECONDS.toNanos(5)));
+    log.acknowledge(1);
+
+    assertEquals(1L, append.get(5, TimeUnit.SECONDS));
+    assertEquals(0, log.getUnacknowledged());
+    assertEquals(0, log.getAckTimeouts());
+  }
+
+  @Test
+  void whenSemiSyncAndFollowerIsSilentThenAppendTimesOut() {
+    ReplicationLog log = new ReplicationLog(8, AckMode.SEMI_SYNC, Duration.ofMillis(20));
+    log.append(new byte[1]);
+    assertEquals(0, log.getAckTimeouts());
+
+    log.followerConnected();
+    long start = System.nanoTime();
+    log.append(new byte[1]);
+
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+    assertEquals(1, log.getAckTimeouts());
+    assertEquals(2, log.getUnacknowledged());
+  }
+}
@@ -0,0 +1,169 @@
+package com.checkout.payment.gateway.replication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReplicationTest {
+
+  private static final Duration HEARTBEAT = Duration.ofMillis(100);
+  private static final String SECRET = "test-secret";
+
+  private ReplicationLog log;
+  private PaymentsRepository leaderRepository;
+  private ReplicationLeader leader;
+  private PaymentsRepository followerRepository;
+  private ReplicationFollower follower;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    log = new ReplicationLog(1024, AckMode.ASYNC, Duration.ofMillis(100));
+    leaderRepository =
+        new PaymentsRepository(1024, 0, Duration.ZERO, Optional.empty(), Optional.of(log));
+    leader = new ReplicationLeader(log, leaderRepository, InetAddress.getLoopbackAddress(), 0,
+        SECRET, 16, HEARTBEAT);
+    leader.start();
+    followerRepository = new PaymentsRepository(1024, 0, Duration.ZERO, Optional.empty());
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    if (follower != null) {
+      follower.close();
+    }
+    leader.close();
+  }
+
+  private List<UUID> addPayments(int count) {
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      // Some codes do not fit the fixed record, so frames carry records of both lengths
+      String code = i % 3 == 0 ? "ACQ-" + UUID.randomUUID() : UUID.randomUUID().toString();
+      PaymentDetails payment = new PaymentDetails(UUID.randomUUID(), code,
+          PaymentStatus.AUTHORIZED, 4321, 12, 2030, "USD", 10 + i);
+      leaderRepository.add(payment);
+      ids.add(payment.getId());
+    }
+    return ids;
+  }
+
+  private void startFollower() {
+    follower = new ReplicationFollower(followerRepository, "localhost:" + leader.getPort(),
+        SECRET, HEARTBEAT, Duration.ofMillis(50));
+    follower.start();
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "timed out");
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  void whenFollowerConnectsThenItReceivesSnapshotAndNewPayments() throws Exception {
+    List<UUID> before = addPayments(100);
+    startFollower();
+    await(() -> followerRepository.size() == 100);
+
+    List<UUID> after = addPayments(100);
+    await(() -> followerRepository.size() == 200);
+
+    for (UUID id : before) {
+      assertEquals(leaderRepository.get(id).get().toString(),
+          followerRepository.get(id).get().toString());
+    }
+    for (UUID id : after) {
+      assertEquals(leaderRepository.get(id).get().toString(),
+          followerRepository.get(id).get().toString());
+    }
+    await(() -> log.getUnacknowledged() == 0);
+    assertEquals(1, log.getFollowers());
+    assertEquals(200, follower.getAppliedSequence());
+    assertTrue(follower.getLagMillis() < 1000, "lag " + follower.getLagMillis());
+  }
+
+  @Test
+  void whenFollowerRestartsThenItCatchesUpFromSnapshot() throws Exception {
+    addPayments(10);
+    startFollower();
+    await(() -> follower.getAppliedSequence() == 10);
+
+    follower.close();
+    await(() -> log.getFollowers() == 0);
+    addPayments(10);
+    startFollower();
+
+    await(() -> followerRepository.size() == 20);
+    await(() -> log.getUnacknowledged() == 0);
+  }
+
+  @Test
+  void whenFollowerLacksSecretThenLeaderSendsNothing() throws Exception {
+    addPayments(10);
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), leader.getPort())) {
+      DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      out.writeInt(ReplicationProtocol.MAGIC);
+      out.writeLong(0);
+      out.writeLong(ReplicationProtocol.NO_SEQUENCE);
+      assertEquals(ReplicationProtocol.MAGIC, in.readInt());
+      in.readLong();
+      in.readFully(new byte[ReplicationProtocol.NONCE_SIZE]);
+      out.write(ReplicationProtocol.prove("wrong", new byte[ReplicationProtocol.NONCE_SIZE]));
+      out.flush();
+
+      assertEquals(-1, in.read());
+    }
+    assertEquals(0, log.getFollowers());
+  }
+
+  @Test
+  void whenFollowerAcknowledgesUnsentSequenceThenItIsDisconnected() throws Exception {
+    addPayments(10);
+    startFollower();
+    await(() -> follower.getAppliedSequence() == 10);
+    follower.close();
+    await(() -> log.getFollowers() == 0);
+
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), leader.getPort())) {
+      DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      out.writeInt(ReplicationProtocol.MAGIC);
+      out.writeLong(0);
+      out.writeLong(ReplicationProtocol.NO_SEQUENCE);
+      in.readInt();
+      in.readLong();
+      byte[] nonce = new byte[ReplicationProtocol.NONCE_SIZE];
+      in.readFully(nonce);
+      out.write(ReplicationProtocol.prove(SECRET, nonce));
+      out.writeLong(Long.MAX_VALUE);
+      out.flush();
+
+      socket.setSoTimeout(10_000);
+      while (in.read() != -1) {
+        // Drain whatever was sent before the leader hung up
+      }
+    }
+    await(() -> log.getFollowers() == 0);
+    addPayments(1);
+    assertEquals(1, log.getUnacknowledged());
+  }
+}
@@ -0,0 +1,96 @@
+package com.checkout.payment.gateway.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class PaymentJournalTest {
+
+  @TempDir
+  Path directory;
+
+  private PaymentJournal openJournal() throws Exception {
+    return openJournal(0);
+  }
+
+  private PaymentJournal openJournal(int maxEntries) throws Exception {
+    // Room for ten entries per segment so that the test rolls segments
+    return new PaymentJournal(directory, DataSize.ofBytes(680), Duration.ofMillis(1), true,
+        Duration.ZERO, maxEntries);
+  }
+
+  @Test
+  void paymentsSurviveRestartAcrossSegments() throws Exception {
+    PaymentJournal journal = openJournal();
+    PaymentsRepository repository = new PaymentsRepository(16, 0, Duration.ZERO,
+        Optional.of(journal));
+    List<PaymentDetails> payments = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      // Every fifth code does not fit the fixed record, so entries vary in length
+      String code = i % 5 == 0 ? "ACQ-" + UUID.randomUUID() : UUID.randomUUID().toString();
+      PaymentDetails payment = new PaymentDetails(UUID.randomUUID(), code,
+          PaymentStatus.AUTHORIZED, 1000 + i, 12, 2030, "EUR", i + 1);
+      repository.add(payment);
+      payments.add(payment);
+    }
+    journal.close();
+
+    PaymentsRepository restored = new PaymentsRepository(16, 0, Duration.ZERO,
+        Optional.of(openJournal()));
+    restored.replayJournal();
+
+    assertEquals(payments.size(), restored.size());
+    for (PaymentDetails payment : payments) {
+      Optional<PaymentDetails> stored = restored.get(payment.getId());
+      assertTrue(stored.isPresent());
+      assertEquals(payment.toString(), stored.get().toString());
+    }
+  }
+
+  @Test
+  void segmentsEvictedByMaxEntriesAreCompacted() throws Exception {
+    PaymentJournal journal = openJournal(10);
+    PaymentsRepository repository = new PaymentsRepository(16, 10, Duration.ZERO,
+        Optional.of(journal));
+    List<PaymentDetails> payments = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      PaymentDetails payment = new PaymentDetails(UUID.randomUUID(),
+          UUID.randomUUID().toString(), PaymentStatus.AUTHORIZED, 1000 + i, 12, 2030, "EUR", i + 1);
+      repository.add(payment);
+      payments.add(payment);
+    }
+
+    journal.compact();
+    journal.close();
+
+    try (var segments = Files.list(directory)) {
+      assertEquals(2, segments.count());
+    }
+    PaymentsRepository restored = new PaymentsRepository(16, 10, Duration.ZERO,
+        Optional.of(openJournal(10)));
+    restored.replayJournal();
+    assertEquals(10, restored.size());
+    for (PaymentDetails payment : payments.subList(15, 25)) {
+      assertTrue(restored.get(payment.getId()).isPresent());
+    }
+  }
+
+  @Test
+  void segmentSizeOfTwoGigabytesIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new PaymentJournal(directory,
+        DataSize.ofGigabytes(2), Duration.ofMillis(1), true, Duration.ZERO, 0));
+  }
+}
@@ -0,0 +1,109 @@
+package com.checkout.payment.gateway.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class PaymentRecordTest {
+
+  @Test
+  void authorizedPaymentRoundTripsThroughPackedRecord() {
+    PaymentDetails payment = new PaymentDetails(UUID.randomUUID(),
+        UUID.randomUUID().toString(), PaymentStatus.AUTHORIZED, 1111, 4, 2030, "GBP", 1050);
+
+    PaymentRecord record = PaymentRecord.wrap(PaymentRecord.encode(payment, 42L));
+
+    assertEquals(PaymentRecord.SIZE, PaymentRecord.encode(payment, 42L).length);
+    assertEquals(payment.getId(), record.getId());
+    assertEquals(payment.getAuthorizationCode(), record.getAuthorizationCode());
+    assertEquals(PaymentStatus.AUTHORIZED, record.getStatus());
+    assertEquals(Currency.GBP, record.getCurrencyCode());
+    assertEquals(1111, record.getCardNumberLastFour());
+    assertEquals(4, record.getExpiryMonth());
+    assertEquals(2030, record.getExpiryYear());
+    assertEquals(1050, record.getAmount());
+    assertEquals(42L, record.getStoredAt());
+    assertEquals(payment.toString(), record.toPaymentDetails().toString());
+  }
+
+  @Test
+  void rejectedPaymentWithoutAuthorizationCodeRoundTrips() {
+    PaymentDetails payment = new PaymentDetails(UUID.randomUUID(), null, PaymentStatus.REJECTED,
+        2222, 12, 2030, "USD", 10);
+
+    PaymentRecord record = PaymentRecord.wrap(PaymentRecord.encode(payment, 0L));
+
+    assertNull(record.getAuthorizationCode());
+    assertEquals(PaymentStatus.REJECTED, record.getStatus());
+    assertEquals("USD", record.getCurrency());
+  }
+
+  @Test
+  void upperCaseUuidAuthorizationCodeIsKeptAsSent() {
+    String code = UUID.randomUUID().toString().toUpperCase(Locale.ROOT);
+    PaymentDetails payment = new PaymentDetails(UUID.randomUUID(), code,
+        PaymentStatus.AUTHORIZED, 1111, 4, 2030, "GBP", 1050);
+
+    byte[] packed = PaymentRecord.encode(payment, 42L);
+    PaymentRecord record = PaymentRecord.wrap(packed);
+
+    assertEquals(code, record.getAuthorizationCode());
+    assertEquals(packed.length, record.length());
+    assertEquals(payment.toString(), record.toPaymentDetails().toString());
+  }
+
+  @Test
+  void longAuthorizationCodeIsKeptInTail() {
+    String code = "AUTH-0123456789-ABCD";
+    PaymentDetails payment = new PaymentDetails(UUID.randomUUID(), code,
+        PaymentStatus.AUTHORIZED, 1111, 4, 2030, "EUR", 1050);
+
+    byte[] packed = PaymentRecord.encode(payment, 42L);
+    PaymentRecord record = PaymentRecord.wrap(packed);
+
+    assertEquals(20, code.length());
+    assertEquals(PaymentRecord.SIZE + 20, packed.length);
+    assertEquals(code, record.getAuthorizationCode());
+    assertEquals(1050, record.getAmount());
+    byte[] copy = new byte[record.length()];
+    record.copyTo(copy, 0);
+    assertEquals(code, PaymentRecord.wrap(copy).getAuthorizationCode());
+  }
+
+  @Test
+  void recordsOfDifferentLengthsSplitBackApart() {
+    String nonAscii = "\u00e9".repeat(9);
+    byte[] shortRecord = PaymentRecord.encode(new PaymentDetails(UUID.randomUUID(), "ABC123",
+        PaymentStatus.AUTHORIZED, 1111, 4, 2030, "GBP", 1), 1L);
+    byte[] longRecord = PaymentRecord.encode(new PaymentDetails(UUID.randomUUID(), nonAscii,
+        PaymentStatus.AUTHORIZED, 2222, 4, 2030, "GBP", 2), 2L);
+    byte[] joined = new byte[shortRecord.length + longRecord.length];
+    System.arraycopy(shortRecord, 0, joined, 0, shortRecord.length);
+    System.arraycopy(longRecord, 0, joined, shortRecord.length, longRecord.length);
+
+    List<byte[]> split = PaymentRecord.split(joined);
+
+    assertEquals(2, split.size());
+    assertEquals("ABC123", PaymentRecord.wrap(split.get(0)).getAuthorizationCode());
+    assertEquals(nonAscii, PaymentRecord.wrap(split.get(1)).getAuthorizationCode());
+    assertThrows(IllegalArgumentException.class,
+        () -> PaymentRecord.split(Arrays.copyOf(joined, joined.length - 1)));
+  }
+
+  @Test
+  void unsupportedCurrencyCannotBePacked() {
+    PaymentDetails payment = new PaymentDetails(UUID.randomUUID(), null, PaymentStatus.REJECTED,
+        2222, 12, 2030, "JPY", 10);
+
+    assertThrows(IllegalArgumentException.class, () -> PaymentRecord.encode(payment, 0L));
+  }
+}
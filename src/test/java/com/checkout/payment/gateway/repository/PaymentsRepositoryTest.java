@@ -0,0 +1,130 @@
+package com.checkout.payment.gateway.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class PaymentsRepositoryTest {
+
+  private PaymentDetails getSamplePayment() {
+    return new PaymentDetails(UUID.randomUUID(), null, PaymentStatus.REJECTED, 4321, 12, 2030,
+        "USD", 10);
+  }
+
+  @Test
+  void whenMaxEntriesIsExceededThenOldestPaymentIsEvicted() {
+    PaymentsRepository repository = new PaymentsRepository(16, 2, Duration.ZERO,
+        Optional.empty());
+    PaymentDetails first = getSamplePayment();
+    PaymentDetails second = getSamplePayment();
+    PaymentDetails third = getSamplePayment();
+
+    repository.add(first);
+    repository.add(second);
+    repository.add(third);
+
+    assertFalse(repository.get(first.getId()).isPresent());
+    assertTrue(repository.get(second.getId()).isPresent());
+    assertTrue(repository.get(third.getId()).isPresent());
+    assertEquals(2, repository.size());
+    assertEquals(1, repository.getEvictedCount());
+  }
+
+  @Test
+  void whenTimeToLiveHasPassedThenPaymentIsNotReturned() throws Exception {
+    PaymentsRepository repository = new PaymentsRepository(16, 0, Duration.ofMillis(20),
+        Optional.empty());
+    PaymentDetails payment = getSamplePayment();
+
+    repository.add(payment);
+    assertTrue(repository.get(payment.getId()).isPresent());
+
+    Thread.sleep(50);
+
+    assertFalse(repository.get(payment.getId()).isPresent());
+    assertEquals(1, repository.getExpiredCount());
+  }
+
+  @Test
+  void whenQueryingByStatusAndCurrencyThenOnlyMatchingPaymentsAreReturnedOldestFirst()
+      throws Exception {
+    PaymentsRepository repository = new PaymentsRepository(16, 0, Duration.ZERO,
+        Optional.empty());
+    PaymentDetails first = getSamplePayment();
+    PaymentDetails otherCurrency = getSamplePayment();
+    otherCurrency.setCurrency("GBP");
+    PaymentDetails otherStatus = getSamplePayment();
+    otherStatus.setStatus(PaymentStatus.AUTHORIZED);
+    PaymentDetails second = getSamplePayment();
+
+    repository.add(first);
+    repository.add(otherCurrency);
+    repository.add(otherStatus);
+    // Payments stored within the same millisecond are ordered by id, not insertion
+    Thread.sleep(2);
+    repository.add(second);
+
+    List<PaymentRecord> matches = repository.find(
+        new PaymentQuery(PaymentStatus.REJECTED, Currency.USD, null, null, null, 10));
+    assertEquals(List.of(first.getId(), second.getId()),
+        matches.stream().map(PaymentRecord::getId).toList());
+  }
+
+  @Test
+  void whenPagingWithCursorThenEveryPaymentIsReturnedOnce() {
+    PaymentsRepository repository = new PaymentsRepository(16, 0, Duration.ZERO,
+        Optional.empty());
+    for (int i = 0; i < 5; i++) {
+      repository.add(getSamplePayment());
+    }
+
+    List<PaymentRecord> firstPage = repository.find(
+        new PaymentQuery(null, null, null, null, null, 3));
+    String cursor = PaymentQuery.cursorOf(firstPage.get(2));
+    List<PaymentRecord> secondPage = repository.find(
+        new PaymentQuery(null, null, null, null, cursor, 3));
+
+    assertEquals(3, firstPage.size());
+    assertEquals(2, secondPage.size());
+    assertTrue(firstPage.stream().noneMatch(
+        record -> secondPage.stream().anyMatch(other -> other.getId().equals(record.getId()))));
+  }
+
+  @Test
+  void whenQueryingOutsideTimeWindowThenNothingIsReturned() {
+    PaymentsRepository repository = new PaymentsRepository(16, 0, Duration.ZERO,
+        Optional.empty());
+    repository.add(getSamplePayment());
+
+    Instant future = Instant.now().plusSeconds(60);
+    assertTrue(repository.find(
+        new PaymentQuery(null, null, future, null, null, 10)).isEmpty());
+    assertEquals(1, repository.find(
+        new PaymentQuery(null, null, null, future, null, 10)).size());
+  }
+
+  @Test
+  void whenPaymentIsEvictedThenItIsRemovedFromIndexes() {
+    PaymentsRepository repository = new PaymentsRepository(16, 1, Duration.ZERO,
+        Optional.empty());
+    PaymentDetails first = getSamplePayment();
+    PaymentDetails second = getSamplePayment();
+
+    repository.add(first);
+    repository.add(second);
+
+    List<PaymentRecord> matches = repository.find(
+        new PaymentQuery(PaymentStatus.REJECTED, null, null, null, null, 10));
+    assertEquals(List.of(second.getId()), matches.stream().map(PaymentRecord::getId).toList());
+  }
+}
@@ -0,0 +1,92 @@
+package com.checkout.payment.gateway.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.IdempotencyKeyReusedException;
+import com.checkout.payment.gateway.model.PaymentDetails;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class IdempotencyCacheTest {
+
+  private final IdempotencyCache cache = new IdempotencyCache(100, Duration.ofHours(1));
+  private final AtomicInteger authorizations = new AtomicInteger();
+
+  private PostPaymentRequest getSampleValidPaymentRequest(int amount) {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber("1111111111111111");
+    request.setExpiryMonth(12);
+    request.setExpiryYear(2030);
+    request.setCurrency("USD");
+    request.setAmount(amount);
+    request.setCvv(123);
+    return request;
+  }
+
+  private CompletableFuture<PaymentDetails> authorize(PostPaymentRequest request) {
+    authorizations.incrementAndGet();
+    return CompletableFuture.completedFuture(new PaymentDetails(UUID.randomUUID(),
+        UUID.randomUUID().toString(), PaymentStatus.AUTHORIZED, 1111, request.getExpiryMonth(),
+        request.getExpiryYear(), request.getCurrency(), request.getAmount()));
+  }
+
+  @Test
+  void sameRequestWithSameKeyIsAuthorizedOnce() throws Exception {
+    PostPaymentRequest request = getSampleValidPaymentRequest(10);
+
+    PaymentDetails first = cache.getOrProcess("key", request, () -> authorize(request)).get();
+    PaymentDetails retried = cache.getOrProcess("key", getSampleValidPaymentRequest(10),
+        () -> authorize(request)).get();
+
+    assertSame(first, retried);
+    assertEquals(1, authorizations.get());
+  }
+
+  @Test
+  void differentRequestWithSameKeyIsRejected() throws Exception {
+    PostPaymentRequest request = getSampleValidPaymentRequest(10);
+    PostPaymentRequest other = getSampleValidPaymentRequest(1000);
+    cache.getOrProcess("key", request, () -> authorize(request)).get();
+
+    CompletableFuture<PaymentDetails> reused =
+        cache.getOrProcess("key", other, () -> authorize(other));
+
+    ExecutionException error = assertThrows(ExecutionException.class, reused::get);
+    assertInstanceOf(IdempotencyKeyReusedException.class, error.getCause());
+    assertEquals(1, authorizations.get());
+    assertEquals(10, cache.getOrProcess("key", request, () -> authorize(request)).get()
+        .getAmount());
+  }
+
+  @Test
+  void authorizationInFlightIsNotEvictedByMaxEntries() throws Exception {
+    IdempotencyCache small = new IdempotencyCache(1, Duration.ofHours(1));
+    PostPaymentRequest request = getSampleValidPaymentRequest(10);
+    CompletableFuture<PaymentDetails> inFlight = new CompletableFuture<>();
+
+    CompletableFuture<PaymentDetails> first = small.getOrProcess("slow", request, () -> {
+      authorizations.incrementAndGet();
+      return inFlight;
+    });
+    small.getOrProcess("fast", request, () -> authorize(request)).get();
+    small.getOrProcess("other", request, () -> authorize(request)).get();
+    CompletableFuture<PaymentDetails> retried = small.getOrProcess("slow", request, () -> {
+      authorizations.incrementAndGet();
+      return new CompletableFuture<>();
+    });
+
+    assertEquals(3, authorizations.get());
+    assertEquals(2, small.size());
+    inFlight.complete(authorize(request).get());
+    assertSame(first.get(), retried.get());
+  }
+}
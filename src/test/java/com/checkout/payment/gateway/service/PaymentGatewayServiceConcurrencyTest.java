@@ -0,0 +1,79 @@
+package com.checkout.payment.gateway.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.model.PaymentDetails;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Contention test: many threads authorize and store payments at the same time, then every stored
+ * payment must be readable again. The adaptive bank concurrency limit starts at
+ * {@code bank.gateway.max-in-flight}, so a fresh node admits the whole burst.
+ */
+@SpringBootTest
+class PaymentGatewayServiceConcurrencyTest {
+
+  private static final int THREADS = 64;
+  private static final int PAYMENTS_PER_THREAD = 20;
+
+  @Autowired
+  private PaymentGatewayService paymentGatewayService;
+  @Autowired
+  private PaymentsRepository paymentsRepository;
+
+  private PostPaymentRequest getSampleValidPaymentRequest() {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber("1111111111111111");
+    request.setExpiryMonth(12);
+    request.setExpiryYear(LocalDate.now().getYear() + 1);
+    request.setCurrency("USD");
+    request.setAmount(10);
+    request.setCvv(123);
+    return request;
+  }
+
+  @Test
+  void concurrentPaymentsAreAllPersisted() throws Exception {
+    int sizeBefore = paymentsRepository.size();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<List<PaymentDetails>>> futures = new ArrayList<>();
+
+    for (int i = 0; i < THREADS; i++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        List<PaymentDetails> processed = new ArrayList<>();
+        for (int j = 0; j < PAYMENTS_PER_THREAD; j++) {
+          processed.add(paymentGatewayService.processPayment(getSampleValidPaymentRequest()));
+        }
+        return processed;
+      }));
+    }
+    start.countDown();
+
+    List<PaymentDetails> processed = new ArrayList<>();
+    for (Future<List<PaymentDetails>> future : futures) {
+      processed.addAll(future.get(2, TimeUnit.MINUTES));
+    }
+    executor.shutdown();
+
+    assertEquals(THREADS * PAYMENTS_PER_THREAD, processed.size());
+    assertEquals(sizeBefore + processed.size(), paymentsRepository.size());
+    for (PaymentDetails payment : processed) {
+      assertTrue(paymentsRepository.get(payment.getId()).isPresent());
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.checkout.payment.gateway.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.checkout.payment.gateway.exception.InvalidPaymentException;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PaymentValidationServiceTest {
+
+  private static final Instant JAN_30_2026 = Instant.parse("2026-01-30T12:00:00Z");
+
+  private PostPaymentRequest getSampleRequest() {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber("2222405343248877");
+    request.setExpiryMonth(4);
+    request.setExpiryYear(2026);
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    request.setCvv(123);
+    return request;
+  }
+
+  private PaymentValidationService validator(Clock clock, boolean luhnCheck) {
+    return new PaymentValidationService(clock, luhnCheck);
+  }
+
+  @Test
+  void whenRequestIsValidThenNoExceptionIsThrown() {
+    PaymentValidationService validator = validator(Clock.fixed(JAN_30_2026, ZoneOffset.UTC), false);
+
+    assertDoesNotThrow(() -> validator.validatePaymentRequest(getSampleRequest()));
+  }
+
+  @Test
+  void whenSeveralFieldsAreInvalidThenAllViolationsAreReported() {
+    PaymentValidationService validator = validator(Clock.fixed(JAN_30_2026, ZoneOffset.UTC), false);
+    PostPaymentRequest request = getSampleRequest();
+    request.setCardNumber("2222-4053-4324-8877");
+    request.setCurrency("JPY");
+    request.setAmount(0);
+
+    InvalidPaymentException exception = assertThrows(InvalidPaymentException.class,
+        () -> validator.validatePaymentRequest(request));
+
+    assertEquals("Card number must be a numeric string between 14 and 19 digits long",
+        exception.getMessage());
+    assertEquals(List.of(
+        "Card number must be a numeric string between 14 and 19 digits long",
+        "Invalid currency. Supported currencies: USD, EUR, GBP",
+        "Invalid amount"), exception.getViolations());
+  }
+
+  @Test
+  void whenExpiryMonthIsInThePastThenRequestIsRejected() {
+    PaymentValidationService validator = validator(
+        Clock.fixed(Instant.parse("2026-05-01T00:00:00Z"), ZoneOffset.UTC), false);
+
+    InvalidPaymentException exception = assertThrows(InvalidPaymentException.class,
+        () -> validator.validatePaymentRequest(getSampleRequest()));
+
+    assertEquals("Expiry date cannot be in the past", exception.getMessage());
+  }
+
+  @Test
+  void whenExpiryMonthIsShorterThanTodaysDayOfMonthThenRequestIsAccepted() {
+    PaymentValidationService validator = validator(Clock.fixed(JAN_30_2026, ZoneOffset.UTC), false);
+    PostPaymentRequest request = getSampleRequest();
+    request.setExpiryMonth(2);
+
+    assertDoesNotThrow(() -> validator.validatePaymentRequest(request));
+  }
+
+  @Test
+  void whenMonthPassesThenCachedCurrentMonthIsRefreshed() {
+    MutableClock clock = new MutableClock(Instant.parse("2026-04-30T23:59:59Z"));
+    PaymentValidationService validator = validator(clock, false);
+    PostPaymentRequest request = getSampleRequest();
+
+    assertDoesNotThrow(() -> validator.validatePaymentRequest(request));
+
+    clock.instant = Instant.parse("2026-05-01T00:00:00Z");
+    assertThrows(InvalidPaymentException.class, () -> validator.validatePaymentRequest(request));
+  }
+
+  @Test
+  void whenLuhnCheckIsEnabledThenInvalidChecksumIsRejected() {
+    Clock clock = Clock.fixed(JAN_30_2026, ZoneOffset.UTC);
+    PostPaymentRequest request = getSampleRequest();
+    request.setCardNumber("2222405343248112");
+
+    assertDoesNotThrow(() -> validator(clock, false).validatePaymentRequest(request));
+    InvalidPaymentException exception = assertThrows(InvalidPaymentException.class,
+        () -> validator(clock, true).validatePaymentRequest(request));
+    assertEquals("Card number failed the Luhn check", exception.getMessage());
+    assertDoesNotThrow(() -> validator(clock, true).validatePaymentRequest(getSampleRequest()));
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant instant;
+
+    private MutableClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}